@@ -4,9 +4,17 @@ import be.pxl.services.dto.PostDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
-@FeignClient(name = "post-service", url = "http://localhost:8081")
+import java.util.List;
+
+@FeignClient(name = "post-service", url = "http://localhost:8081", fallbackFactory = PostClientFallbackFactory.class)
 public interface PostClient {
     @GetMapping("/api/posts/internal/{id}")
     PostDTO getPostByIdInternal(@PathVariable("id") Long id);
+
+    // one round trip for many posts, in the order of the ids; unknown ids are left out
+    @PostMapping("/api/posts/internal/batch")
+    List<PostDTO> getPostsByIdsInternal(@RequestBody List<Long> ids);
 }
@@ -0,0 +1,48 @@
+package be.pxl.services.client;
+
+import be.pxl.services.dto.PostDTO;
+import feign.FeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Runs when a PostClient call fails or its circuit breaker is open. An unknown post is reported as
+ * null, which CommentService already refuses; other client errors are passed on unchanged and
+ * everything else becomes a PostServiceUnavailableException, so a slow post-service fails comments
+ * fast instead of holding their request threads.
+ */
+@Component
+public class PostClientFallbackFactory implements FallbackFactory<PostClient> {
+
+    private static final Logger log = LoggerFactory.getLogger(PostClientFallbackFactory.class);
+
+    @Override
+    public PostClient create(Throwable cause) {
+        return new PostClient() {
+            @Override
+            public PostDTO getPostByIdInternal(Long id) {
+                if (cause instanceof FeignException.NotFound) {
+                    return null;
+                }
+                throw failure(cause);
+            }
+
+            @Override
+            public List<PostDTO> getPostsByIdsInternal(List<Long> ids) {
+                throw failure(cause);
+            }
+        };
+    }
+
+    private static RuntimeException failure(Throwable cause) {
+        if (cause instanceof FeignException.FeignClientException clientError) {
+            return clientError;
+        }
+        log.warn("post-service call failed: {}", cause.toString());
+        return new PostServiceUnavailableException(cause);
+    }
+}
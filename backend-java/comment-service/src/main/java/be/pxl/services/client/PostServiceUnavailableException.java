@@ -0,0 +1,11 @@
+package be.pxl.services.client;
+
+/**
+ * post-service could not be reached in time, returned a server error, or its circuit breaker is open.
+ */
+public class PostServiceUnavailableException extends RuntimeException {
+
+    public PostServiceUnavailableException(Throwable cause) {
+        super("post-service is unavailable: " + cause.getMessage(), cause);
+    }
+}
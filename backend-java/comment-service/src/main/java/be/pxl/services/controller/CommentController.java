@@ -1,5 +1,6 @@
 package be.pxl.services.controller;
 
+import be.pxl.services.client.PostServiceUnavailableException;
 import be.pxl.services.entity.Comment;
 import be.pxl.services.service.CommentService;
 import org.springframework.http.HttpStatus;
@@ -31,6 +32,8 @@ public class CommentController {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (PostServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         }
     }
 
@@ -1,10 +1,14 @@
 package be.pxl.services;
 
 import be.pxl.services.client.PostClient;
+import be.pxl.services.client.PostClientFallbackFactory;
 import be.pxl.services.dto.PostDTO;
 import be.pxl.services.entity.Comment;
 import be.pxl.services.repository.CommentRepository;
 import be.pxl.services.service.CommentService;
+import feign.Request;
+import feign.Response;
+import feign.codec.ErrorDecoder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,8 +16,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -55,6 +61,21 @@ class CommentServiceTest {
         verify(commentRepository, never()).save(any());
     }
 
+    @Test
+    void addComment_postUnknownToPostService_isRefusedNotUnavailable() {
+        Request request = Request.create(Request.HttpMethod.GET, "http://post-service/api/posts/internal/99",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        Exception notFound = new ErrorDecoder.Default().decode("PostClient#getPostByIdInternal(Long)",
+                Response.builder().status(404).reason("Not Found").request(request).headers(Map.of()).build());
+        commentService = new CommentService(commentRepository, new PostClientFallbackFactory().create(notFound));
+
+        assertThatThrownBy(() -> commentService.addComment(99L, "gabriel", "test"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Post bestaat niet of is niet gepubliceerd");
+
+        verify(commentRepository, never()).save(any());
+    }
+
     @Test
     void addComment_postNull_throwsIllegalState() {
         Long postId = 1L;
@@ -0,0 +1,47 @@
+package be.pxl.services;
+
+import be.pxl.services.client.PostClient;
+import be.pxl.services.client.PostClientFallbackFactory;
+import be.pxl.services.client.PostServiceUnavailableException;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostClientFallbackFactoryTest {
+
+    private final PostClientFallbackFactory fallbackFactory = new PostClientFallbackFactory();
+
+    private static FeignException status(int status) {
+        Request request = Request.create(Request.HttpMethod.GET, "http://localhost:8081/api/posts/internal/1",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("PostClient#getPostByIdInternal(Long)",
+                Response.builder().status(status).request(request).headers(Map.of()).build());
+    }
+
+    @Test
+    void unknownPost_isReportedAsNull() {
+        PostClient fallback = fallbackFactory.create(status(404));
+
+        assertThat(fallback.getPostByIdInternal(1L)).isNull();
+    }
+
+    @Test
+    void serverErrorOrOpenCircuit_becomesUnavailable() {
+        CallNotPermittedException open = CallNotPermittedException.createCallNotPermittedException(
+                CircuitBreaker.ofDefaults("PostClientgetPostByIdInternalLong"));
+
+        assertThatThrownBy(() -> fallbackFactory.create(status(503)).getPostByIdInternal(1L))
+                .isInstanceOf(PostServiceUnavailableException.class);
+        assertThatThrownBy(() -> fallbackFactory.create(open).getPostByIdInternal(1L))
+                .isInstanceOf(PostServiceUnavailableException.class);
+    }
+}
@@ -0,0 +1,20 @@
+package be.pxl.services.events;
+
+/**
+ * Wire formats an event can be published in. Consumers accept all of them, the content type
+ * of each message decides, so a queue can be switched to another codec without a coordinated deploy.
+ */
+public enum EventCodec {
+    JSON("application/json"),
+    CBOR("application/cbor");
+
+    private final String contentType;
+
+    EventCodec(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,59 @@
+package be.pxl.services.events;
+
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.postprocessor.DelegatingDecompressingPostProcessor;
+import org.springframework.amqp.support.postprocessor.GZipPostProcessor;
+
+/**
+ * Converter and post-processors both services configure their RabbitTemplate and listener containers with.
+ */
+public final class EventMessaging {
+
+    /**
+     * Version of the event schema in this module. Adding fields keeps the version, consumers ignore
+     * what they do not know; removing or changing a field requires a new version.
+     */
+    public static final int SCHEMA_VERSION = 1;
+
+    public static final String SCHEMA_VERSION_HEADER = "x-event-schema-version";
+
+    private EventMessaging() {
+    }
+
+    /**
+     * Reads every EventCodec, chosen by the content type of the message, and writes the codec whose
+     * content type is set on the outgoing MessageProperties. Anything else is written as JSON.
+     */
+    public static MessageConverter messageConverter() {
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(json);
+        converter.addDelegate(EventCodec.JSON.contentType(), json);
+        converter.addDelegate(EventCodec.CBOR.contentType(), new Jackson2CborMessageConverter());
+        return converter;
+    }
+
+    public static MessagePostProcessor schemaVersionHeader() {
+        return message -> {
+            message.getMessageProperties().setHeader(SCHEMA_VERSION_HEADER, SCHEMA_VERSION);
+            return message;
+        };
+    }
+
+    /**
+     * Gzips bodies larger than the threshold; small messages are not worth the CPU.
+     */
+    public static MessagePostProcessor compressAbove(int thresholdBytes) {
+        GZipPostProcessor gzip = new GZipPostProcessor();
+        return message -> message.getBody().length > thresholdBytes ? gzip.postProcessMessage(message) : message;
+    }
+
+    /**
+     * Restores compressed bodies based on their content encoding, uncompressed messages pass through.
+     */
+    public static MessagePostProcessor decompressing() {
+        return new DelegatingDecompressingPostProcessor();
+    }
+}
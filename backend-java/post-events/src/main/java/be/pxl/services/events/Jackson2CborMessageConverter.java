@@ -0,0 +1,58 @@
+package be.pxl.services.events;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractMessageConverter;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.io.IOException;
+
+/**
+ * Same type resolution as Jackson2JsonMessageConverter (the listener's parameter type first, then
+ * the __TypeId__ header), but the body is CBOR: field names and values are binary encoded and
+ * timestamps are plain numbers. A __TypeId__ header is only followed into this package, where all the
+ * events live, so a message on a shared queue cannot pick an arbitrary class to deserialize.
+ */
+public class Jackson2CborMessageConverter extends AbstractMessageConverter {
+
+    private final ObjectMapper objectMapper = CBORMapper.builder()
+            .findAndAddModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+
+    public Jackson2CborMessageConverter() {
+        typeMapper.setTypePrecedence(Jackson2JavaTypeMapper.TypePrecedence.INFERRED);
+        typeMapper.setTrustedPackages(Jackson2CborMessageConverter.class.getPackageName());
+    }
+
+    @Override
+    protected Message createMessage(Object object, MessageProperties messageProperties) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(object);
+            messageProperties.setContentType(EventCodec.CBOR.contentType());
+            messageProperties.setContentLength(body.length);
+            typeMapper.fromJavaType(objectMapper.constructType(object.getClass()), messageProperties);
+            return new Message(body, messageProperties);
+        } catch (IOException ex) {
+            throw new MessageConversionException("Failed to write " + object.getClass().getName() + " as CBOR", ex);
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        JavaType type = typeMapper.toJavaType(message.getMessageProperties());
+        try {
+            return objectMapper.readValue(message.getBody(), type);
+        } catch (IOException ex) {
+            throw new MessageConversionException("Failed to read CBOR message as " + type, ex);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package be.pxl.services.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scales the consumers of one listener container between a minimum and a maximum. Every interval
+ * it compares the queue depth with how long a message takes to process: the consumers needed to
+ * drain the backlog within target-drain-time are started at once, surplus consumers are stopped one
+ * at a time so a short lull does not tear down what the next burst needs. Prefetch follows the
+ * processing time so each consumer holds about prefetch-window of work; a new prefetch applies to
+ * consumers started after the change.
+ */
+public class ListenerAutoscaler implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ListenerAutoscaler.class);
+
+    // weight of the newest sample in the processing time average
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    public record Limits(int minConsumers, int maxConsumers, int minPrefetch, int maxPrefetch,
+                         Duration targetDrainTime, Duration prefetchWindow, Duration interval) {
+    }
+
+    public record Decision(int consumers, int prefetch) {
+    }
+
+    private final String listenerId;
+    private final String queueName;
+    private final RabbitListenerEndpointRegistry registry;
+    private final AmqpAdmin amqpAdmin;
+    private final Limits limits;
+    private final Counter scaledUp;
+    private final Counter scaledDown;
+
+    private volatile double messageLatencyMillis;
+    private volatile long queueDepth;
+    private volatile int consumers;
+    private volatile int prefetch;
+    private volatile ScheduledExecutorService scheduler;
+
+    public ListenerAutoscaler(String listenerId, String queueName, RabbitListenerEndpointRegistry registry,
+                              AmqpAdmin amqpAdmin, MeterRegistry meterRegistry, Limits limits) {
+        this.listenerId = listenerId;
+        this.queueName = queueName;
+        this.registry = registry;
+        this.amqpAdmin = amqpAdmin;
+        this.limits = limits;
+        this.consumers = limits.minConsumers();
+        this.prefetch = limits.minPrefetch();
+
+        Tags tags = Tags.of("queue", queueName);
+        Gauge.builder("rabbit.autoscaler.consumers", this, a -> a.consumers)
+                .description("Consumers the autoscaler assigned to the listener")
+                .tags(tags).register(meterRegistry);
+        Gauge.builder("rabbit.autoscaler.prefetch", this, a -> a.prefetch)
+                .description("Prefetch the autoscaler assigned to new consumers")
+                .tags(tags).register(meterRegistry);
+        Gauge.builder("rabbit.autoscaler.queue-depth", this, a -> a.queueDepth)
+                .description("Ready messages at the last autoscaler run")
+                .tags(tags).register(meterRegistry);
+        Gauge.builder("rabbit.autoscaler.message-latency", this, a -> a.messageLatencyMillis)
+                .description("Smoothed processing time per message in milliseconds")
+                .tags(tags).register(meterRegistry);
+        this.scaledUp = Counter.builder("rabbit.autoscaler.decisions")
+                .description("Consumer count changes made by the autoscaler")
+                .tags(tags).tag("direction", "up").register(meterRegistry);
+        this.scaledDown = Counter.builder("rabbit.autoscaler.decisions")
+                .description("Consumer count changes made by the autoscaler")
+                .tags(tags).tag("direction", "down").register(meterRegistry);
+    }
+
+    /**
+     * Starts the factory's containers with the minimum consumers. The factory's advice chain must
+     * also include timingAdvice(), otherwise the autoscaler only sees the queue depth.
+     */
+    public void configure(SimpleRabbitListenerContainerFactory factory) {
+        factory.setConcurrentConsumers(limits.minConsumers());
+        factory.setPrefetchCount(limits.minPrefetch());
+    }
+
+    /**
+     * Container advice that measures the listener per delivered message; a batch listener's time is
+     * spread over its batch.
+     */
+    public MethodInterceptor timingAdvice() {
+        return invocation -> {
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                Object[] arguments = invocation.getArguments();
+                int messages = arguments.length > 1 && arguments[1] instanceof List<?> batch
+                        ? Math.max(batch.size(), 1) : 1;
+                recordLatency((System.nanoTime() - start) / 1_000_000.0 / messages);
+            }
+        };
+    }
+
+    synchronized void recordLatency(double millisPerMessage) {
+        messageLatencyMillis = messageLatencyMillis == 0
+                ? millisPerMessage
+                : LATENCY_SMOOTHING * millisPerMessage + (1 - LATENCY_SMOOTHING) * messageLatencyMillis;
+    }
+
+    /**
+     * The consumers and prefetch for the given backlog. Scaling up jumps straight to what is needed,
+     * scaling down drops a single consumer per run.
+     */
+    public static Decision decide(Limits limits, int currentConsumers, long depth, double latencyMillis) {
+        double backlogMillis = depth * Math.max(latencyMillis, 0.1);
+        int needed = (int) Math.ceil(backlogMillis / Math.max(limits.targetDrainTime().toMillis(), 1));
+        int target = needed >= currentConsumers ? needed : currentConsumers - 1;
+        int consumers = Math.clamp(target, limits.minConsumers(), limits.maxConsumers());
+
+        int prefetch = latencyMillis <= 0
+                ? limits.minPrefetch()
+                : (int) Math.round(limits.prefetchWindow().toMillis() / latencyMillis);
+        return new Decision(consumers, Math.clamp(prefetch, limits.minPrefetch(), limits.maxPrefetch()));
+    }
+
+    void adjust() {
+        MessageListenerContainer listenerContainer = registry.getListenerContainer(listenerId);
+        if (!(listenerContainer instanceof SimpleMessageListenerContainer container) || !container.isRunning()) {
+            return;
+        }
+        QueueInformation info = amqpAdmin.getQueueInfo(queueName);
+        if (info == null) {
+            return;
+        }
+        queueDepth = info.getMessageCount();
+
+        Decision decision = decide(limits, consumers, queueDepth, messageLatencyMillis);
+        if (decision.prefetch() != prefetch) {
+            container.setPrefetchCount(decision.prefetch());
+            prefetch = decision.prefetch();
+        }
+        if (decision.consumers() != consumers) {
+            log.info("Scaling {} from {} to {} consumers: {} ready, {} ms per message, prefetch {}", queueName,
+                    consumers, decision.consumers(), queueDepth, String.format("%.1f", messageLatencyMillis),
+                    prefetch);
+            (decision.consumers() > consumers ? scaledUp : scaledDown).increment();
+            container.setConcurrentConsumers(decision.consumers());
+            consumers = decision.consumers();
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("autoscaler-" + listenerId).daemon().factory());
+        long interval = limits.interval().toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                adjust();
+            } catch (RuntimeException ex) {
+                log.warn("Autoscaling {} failed: {}", queueName, ex.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = scheduler;
+        if (running != null) {
+            running.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
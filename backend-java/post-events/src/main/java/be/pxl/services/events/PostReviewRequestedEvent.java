@@ -0,0 +1,55 @@
+package be.pxl.services.events;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Sent by post-service when an editor submits a post for review.
+ * Content above the sender's inline limit is left out (claim-check); the consumer then fetches
+ * it from post-service when it is needed and can check it against contentHash and contentSize.
+ * Messages from before the claim-check fields existed carry the content and no hash; older messages
+ * also lack requestedAt, the moment the post was submitted.
+ */
+public record PostReviewRequestedEvent(
+        Long postId,
+        String title,
+        String content,
+        String author,
+        String contentHash,
+        Integer contentSize,
+        Instant requestedAt
+) {
+
+    /**
+     * Builds the event, embedding the content only when its UTF-8 size is at most inlineContentMaxBytes.
+     */
+    public static PostReviewRequestedEvent of(Long postId, String title, String content, String author,
+                                              int inlineContentMaxBytes) {
+        byte[] bytes = content == null ? new byte[0] : content.getBytes(StandardCharsets.UTF_8);
+        boolean inline = bytes.length <= inlineContentMaxBytes;
+        return new PostReviewRequestedEvent(postId, title, inline ? content : null, author,
+                sha256(bytes), bytes.length, Instant.now());
+    }
+
+    public boolean contentInline() {
+        return content != null || contentHash == null;
+    }
+
+    /**
+     * The hex SHA-256 of the content's UTF-8 bytes, as carried in contentHash.
+     */
+    public static String contentHash(String content) {
+        return sha256(content == null ? new byte[0] : content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
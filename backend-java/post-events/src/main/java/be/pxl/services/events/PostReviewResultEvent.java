@@ -0,0 +1,16 @@
+package be.pxl.services.events;
+
+import java.time.Instant;
+
+/**
+ * Sent by review-service for every review decision. eventId is unique per decision and is what
+ * post-service recognises redeliveries by; it is null for events from producers that predate it.
+ */
+public record PostReviewResultEvent(
+        String eventId,
+        Long postId,
+        ReviewDecision decision,
+        String reviewer,
+        String comment,
+        Instant reviewedAt
+) {}
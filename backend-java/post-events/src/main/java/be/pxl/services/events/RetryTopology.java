@@ -0,0 +1,192 @@
+package be.pxl.services.events;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.ConditionalRejectingErrorHandler;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Delayed retries and a dead-letter queue for one work queue, without touching the work queue itself.
+ * A failed message is republished to queue.retry.N, whose TTL grows by multiplier per attempt and
+ * which dead-letters expired messages back onto the work queue through the default exchange.
+ * Fatal failures, and messages that failed max-attempts times, go to queue.dlq instead.
+ * One TTL per retry queue keeps expiry in order; with a TTL per message a long delay at the head
+ * would hold back the shorter ones behind it.
+ */
+public class RetryTopology {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryTopology.class);
+
+    public static final String ATTEMPT_HEADER = "x-retry-attempt";
+    public static final String EXCEPTION_HEADER = "x-exception-message";
+
+    private static final ConditionalRejectingErrorHandler.DefaultExceptionStrategy FATAL_EXCEPTIONS =
+            new ConditionalRejectingErrorHandler.DefaultExceptionStrategy();
+
+    private final String queueName;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final double multiplier;
+
+    public RetryTopology(String queueName, int maxAttempts, Duration initialBackoff, double multiplier) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.queueName = queueName;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.multiplier = multiplier;
+    }
+
+    public String retryQueueName(int attempt) {
+        return queueName + ".retry." + attempt;
+    }
+
+    public String deadLetterQueueName() {
+        return queueName + ".dlq";
+    }
+
+    /**
+     * How long a message waits after its attempt-th failure.
+     */
+    public Duration backoff(int attempt) {
+        return Duration.ofMillis(Math.round(initialBackoff.toMillis() * Math.pow(multiplier, attempt - 1)));
+    }
+
+    /**
+     * The retry queues, one per attempt that may still be followed by another, and the dead-letter queue.
+     */
+    public Declarables declarables() {
+        List<Declarable> queues = new ArrayList<>();
+        for (int attempt = 1; attempt < maxAttempts; attempt++) {
+            queues.add(QueueBuilder.durable(retryQueueName(attempt))
+                    .ttl((int) backoff(attempt).toMillis())
+                    .deadLetterExchange("")
+                    .deadLetterRoutingKey(queueName)
+                    .build());
+        }
+        queues.add(QueueBuilder.durable(deadLetterQueueName()).build());
+        return new Declarables(queues);
+    }
+
+    /**
+     * Failures that another attempt cannot fix: unreadable messages, invalid arguments and the
+     * other exceptions Spring AMQP already rejects without requeueing.
+     */
+    public static boolean isFatal(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalArgumentException) {
+                return true;
+            }
+        }
+        return FATAL_EXCEPTIONS.isFatal(failure);
+    }
+
+    /**
+     * Container advice that hands every failed delivery to the retry or dead-letter queue and then
+     * lets the container acknowledge it, so a failing message never returns to the head of the
+     * work queue. A batch is retried as a whole, except for the messages that cannot be converted,
+     * which are dead-lettered on their own. If the republish itself is not confirmed the exception
+     * propagates and the container requeues the delivery as before.
+     */
+    public MethodInterceptor retryAdvice(RabbitTemplate rabbitTemplate, Duration confirmTimeout) {
+        return invocation -> {
+            try {
+                return invocation.proceed();
+            } catch (Throwable failure) {
+                Object[] arguments = invocation.getArguments();
+                Object data = arguments.length > 1 ? arguments[1] : null;
+                if (data instanceof Message message) {
+                    recover(rabbitTemplate, confirmTimeout, message, failure, isFatal(failure));
+                } else if (data instanceof List<?> batch) {
+                    for (Object item : batch) {
+                        Message message = (Message) item;
+                        boolean fatal = batch.size() == 1
+                                ? isFatal(failure)
+                                : !convertible(rabbitTemplate, message);
+                        recover(rabbitTemplate, confirmTimeout, message, failure, fatal);
+                    }
+                } else {
+                    throw failure;
+                }
+                return null;
+            }
+        };
+    }
+
+    private boolean convertible(RabbitTemplate rabbitTemplate, Message message) {
+        try {
+            rabbitTemplate.getMessageConverter().fromMessage(message);
+            return true;
+        } catch (MessageConversionException ex) {
+            return false;
+        }
+    }
+
+    void recover(RabbitTemplate rabbitTemplate, Duration confirmTimeout, Message message, Throwable failure,
+                 boolean fatal) {
+        MessageProperties properties = message.getMessageProperties();
+        Integer header = properties.getHeader(ATTEMPT_HEADER);
+        int attempt = header == null ? 1 : header;
+
+        String target;
+        boolean deadLetter = fatal || attempt >= maxAttempts;
+        if (deadLetter) {
+            target = deadLetterQueueName();
+            log.error("Dead-lettering message {} from {} after attempt {}: {}", properties.getMessageId(),
+                    queueName, attempt, failure.toString());
+        } else {
+            target = retryQueueName(attempt);
+            log.warn("Retrying message {} from {} in {} (attempt {} failed): {}", properties.getMessageId(),
+                    queueName, backoff(attempt), attempt, failure.toString());
+        }
+
+        Message republished = MessageBuilder.fromClonedMessage(message)
+                // on the dead-letter queue the header says how many attempts were made
+                .setHeader(ATTEMPT_HEADER, deadLetter ? attempt : attempt + 1)
+                .setHeader(EXCEPTION_HEADER, String.valueOf(failure.getMessage()))
+                .build();
+        MessageProperties republishedProperties = republished.getMessageProperties();
+        if (republishedProperties.getDeliveryMode() == null) {
+            MessageDeliveryMode received = properties.getReceivedDeliveryMode();
+            republishedProperties.setDeliveryMode(received != null ? received : MessageDeliveryMode.PERSISTENT);
+        }
+        send(rabbitTemplate, confirmTimeout, target, republished);
+    }
+
+    private void send(RabbitTemplate rabbitTemplate, Duration confirmTimeout, String target, Message message) {
+        CorrelationData correlationData = new CorrelationData();
+        // through the default exchange, routed by queue name
+        rabbitTemplate.send("", target, message, correlationData);
+        try {
+            CorrelationData.Confirm confirm = correlationData.getFuture()
+                    .get(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (!confirm.isAck() || correlationData.getReturned() != null) {
+                throw new AmqpException("Republishing to " + target + " was not confirmed: " + confirm.getReason());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while republishing to " + target, ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new AmqpException("No confirm for republishing to " + target, ex);
+        }
+    }
+}
@@ -1,4 +1,4 @@
-package be.pxl.services.entity;
+package be.pxl.services.events;
 
 public enum ReviewDecision {
     APPROVED,
@@ -0,0 +1,47 @@
+package be.pxl.services.events.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A broker message written in the same transaction as the state change that caused it.
+ * The body is stored already converted, so the relay only has to hand it to the broker.
+ */
+@Entity
+@Table(name = "outbox_messages", indexes = {
+        @Index(name = "idx_outbox_sent_at_id", columnList = "sentAt, id")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+
+    // header Jackson2JsonMessageConverter uses to pick the target class on the consumer side
+    public static final String TYPE_ID_HEADER = "__TypeId__";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String exchange;
+
+    @Column(nullable = false)
+    private String routingKey;
+
+    private String contentType;
+
+    private String typeId;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,25 @@
+package be.pxl.services.events.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Oldest unsent messages, row-locked with SKIP LOCKED so several instances can relay side by side
+     * without publishing the same row twice.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<OutboxMessage> findBySentAtIsNullOrderByIdAsc(Limit limit);
+
+    @Modifying
+    @Query("delete from OutboxMessage m where m.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,173 @@
+package be.pxl.services.events.outbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes the messages that were committed to the outbox, oldest first and in batches.
+ * A row is only marked as sent once the broker has confirmed it; the confirms of a batch are
+ * awaited after the whole batch is on the wire, so the relay never waits one round trip per message.
+ * Delivery is at-least-once: a crash between publishing and committing the sentAt update
+ * publishes the same rows again on the next run.
+ * The metrics are named after app.outbox.metric-prefix, so each service reports its own relay.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final Duration retention;
+    private final Duration confirmTimeout;
+    private final String confirmTimer;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public OutboxRelay(OutboxMessageRepository outboxMessageRepository,
+                       RabbitTemplate rabbitTemplate,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.retention:P1D}") Duration retention,
+                       @Value("${app.outbox.confirm-timeout:PT5S}") Duration confirmTimeout,
+                       @Value("${app.outbox.metric-prefix:outbox}") String metricPrefix) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.confirmTimeout = confirmTimeout;
+        this.confirmTimer = metricPrefix + ".confirm";
+        Gauge.builder(metricPrefix + ".in-flight", inFlight, AtomicInteger::get)
+                .description("Outbox messages published but not yet confirmed by the broker")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval:PT0.5S}")
+    public void relayPending() {
+        int relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed == batchSize);
+    }
+
+    /**
+     * Returns how many messages were confirmed. Stops at the first failure, nack or return so the
+     * remaining rows keep their order and are retried on the next run.
+     */
+    int relayBatch() {
+        List<OutboxMessage> pending = outboxMessageRepository.findBySentAtIsNullOrderByIdAsc(Limit.of(batchSize));
+        List<CorrelationData> confirms = new ArrayList<>(pending.size());
+        long publishedAt = System.nanoTime();
+
+        for (OutboxMessage outboxMessage : pending) {
+            CorrelationData correlationData = new CorrelationData(String.valueOf(outboxMessage.getId()));
+            try {
+                rabbitTemplate.send(outboxMessage.getExchange(), outboxMessage.getRoutingKey(),
+                        toMessage(outboxMessage), correlationData);
+            } catch (AmqpException ex) {
+                log.warn("Outbox relay stopped at message {}: {}", outboxMessage.getId(), ex.getMessage());
+                break;
+            }
+            confirms.add(correlationData);
+            inFlight.incrementAndGet();
+        }
+
+        int sent = 0;
+        try {
+            for (int i = 0; i < confirms.size(); i++) {
+                OutboxMessage outboxMessage = pending.get(i);
+                if (!awaitConfirm(outboxMessage, confirms.get(i), publishedAt)) {
+                    // the rows confirmed before this one are still marked as sent when the batch commits
+                    break;
+                }
+                outboxMessage.setSentAt(LocalDateTime.now());
+                sent++;
+            }
+        } finally {
+            inFlight.addAndGet(-confirms.size());
+        }
+
+        if (sent > 0) {
+            log.debug("Relayed {} outbox messages", sent);
+        }
+        return sent;
+    }
+
+    private boolean awaitConfirm(OutboxMessage outboxMessage, CorrelationData correlationData, long publishedAt) {
+        String result;
+        try {
+            CorrelationData.Confirm confirm = correlationData.getFuture()
+                    .get(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (!confirm.isAck()) {
+                result = "nack";
+                log.warn("Broker nacked outbox message {}: {}", outboxMessage.getId(), confirm.getReason());
+            } else if (correlationData.getReturned() != null) {
+                result = "returned";
+                log.warn("Outbox message {} was unroutable on {}/{}: {}", outboxMessage.getId(),
+                        outboxMessage.getExchange(), outboxMessage.getRoutingKey(),
+                        correlationData.getReturned().getReplyText());
+            } else {
+                result = "ack";
+            }
+        } catch (TimeoutException | ExecutionException ex) {
+            result = "timeout";
+            log.warn("No broker confirm for outbox message {}: {}", outboxMessage.getId(), ex.toString());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        Timer.builder(confirmTimer)
+                .description("Time from publishing an outbox batch to the broker confirm of each message")
+                .tag("result", result)
+                .register(meterRegistry)
+                .record(System.nanoTime() - publishedAt, TimeUnit.NANOSECONDS);
+        return "ack".equals(result);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.purge-interval:PT1H}")
+    public void purgeSent() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        Integer purged = transactionTemplate.execute(status -> outboxMessageRepository.deleteSentBefore(before));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} sent outbox messages older than {}", purged, before);
+        }
+    }
+
+    private Message toMessage(OutboxMessage outboxMessage) {
+        return MessageBuilder.withBody(outboxMessage.getPayload())
+                .setContentType(outboxMessage.getContentType())
+                .setHeader(OutboxMessage.TYPE_ID_HEADER, outboxMessage.getTypeId())
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package be.pxl.services.events.outbox;
+
+import be.pxl.services.events.EventCodec;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+public class OutboxService {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final MessageConverter messageConverter;
+
+    public OutboxService(OutboxMessageRepository outboxMessageRepository, RabbitTemplate rabbitTemplate) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.messageConverter = rabbitTemplate.getMessageConverter();
+    }
+
+    /**
+     * Stores the event for publication by OutboxRelay. It must join the caller's transaction,
+     * otherwise the event and the state change it describes are no longer committed together.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxMessage enqueue(String exchange, String routingKey, Object event, EventCodec codec) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(codec.contentType());
+        Message message = messageConverter.toMessage(event, properties);
+
+        OutboxMessage outboxMessage = OutboxMessage.builder()
+                .exchange(exchange)
+                .routingKey(routingKey)
+                .contentType(properties.getContentType())
+                .typeId(properties.getHeader(OutboxMessage.TYPE_ID_HEADER))
+                .payload(message.getBody())
+                .createdAt(LocalDateTime.now())
+                .build();
+        return outboxMessageRepository.save(outboxMessage);
+    }
+}
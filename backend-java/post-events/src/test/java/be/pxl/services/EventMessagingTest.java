@@ -0,0 +1,107 @@
+package be.pxl.services;
+
+import be.pxl.services.events.EventCodec;
+import be.pxl.services.events.EventMessaging;
+import be.pxl.services.events.PostReviewRequestedEvent;
+import be.pxl.services.events.PostReviewResultEvent;
+import be.pxl.services.events.ReviewDecision;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventMessagingTest {
+
+    private final MessageConverter converter = EventMessaging.messageConverter();
+
+    private Message write(Object event, EventCodec codec) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(codec.contentType());
+        return converter.toMessage(event, properties);
+    }
+
+    private <T> T read(Message message, Class<T> type) {
+        message.getMessageProperties().setInferredArgumentType(type);
+        return type.cast(converter.fromMessage(message));
+    }
+
+    @Test
+    void cbor_roundTripsResultEvent_andIsSmallerThanJson() {
+        PostReviewResultEvent event = new PostReviewResultEvent("3f1c2a9e-6a4d-4a63-9a51-0f7d2c1b8e44", 42L,
+                ReviewDecision.REJECTED, "rita", "Needs sources", Instant.now().truncatedTo(ChronoUnit.MILLIS));
+
+        Message cbor = write(event, EventCodec.CBOR);
+        Message json = write(event, EventCodec.JSON);
+
+        assertThat(cbor.getMessageProperties().getContentType()).isEqualTo("application/cbor");
+        assertThat(cbor.getBody().length).isLessThan(json.getBody().length);
+        assertThat(read(cbor, PostReviewResultEvent.class)).isEqualTo(event);
+        assertThat(read(json, PostReviewResultEvent.class)).isEqualTo(event);
+    }
+
+    @Test
+    void cbor_typeIdOutsideEventPackage_isRefused() {
+        Message message = write(new PostReviewResultEvent("e1", 1L, ReviewDecision.APPROVED, "rita", null, null),
+                EventCodec.CBOR);
+        assertThat(converter.fromMessage(message)).isInstanceOf(PostReviewResultEvent.class);
+
+        message.getMessageProperties().setHeader("__TypeId__", "com.example.Gadget");
+
+        assertThatThrownBy(() -> converter.fromMessage(message))
+                .hasMessageContaining("not in the trusted packages");
+    }
+
+    @Test
+    void compressAbove_onlyCompressesLargeBodies_andDecompressingRestoresThem() {
+        PostReviewRequestedEvent small = PostReviewRequestedEvent.of(1L, "t", "short", "gabriel", Integer.MAX_VALUE);
+        PostReviewRequestedEvent large = PostReviewRequestedEvent.of(2L, "t", "lorem ipsum ".repeat(1000), "gabriel",
+                Integer.MAX_VALUE);
+
+        Message smallMessage = EventMessaging.compressAbove(1024).postProcessMessage(write(small, EventCodec.CBOR));
+        Message largeMessage = EventMessaging.compressAbove(1024).postProcessMessage(write(large, EventCodec.CBOR));
+        int uncompressedSize = write(large, EventCodec.CBOR).getBody().length;
+
+        assertThat(smallMessage.getMessageProperties().getContentEncoding()).isNull();
+        assertThat(largeMessage.getMessageProperties().getContentEncoding()).startsWith("gzip");
+        assertThat(largeMessage.getBody().length).isLessThan(uncompressedSize / 10);
+
+        Message restored = EventMessaging.decompressing().postProcessMessage(largeMessage);
+        assertThat(read(restored, PostReviewRequestedEvent.class)).isEqualTo(large);
+    }
+
+    @Test
+    void requestEvent_leavesOutContentAboveInlineLimit_butKeepsHashAndSize() {
+        String content = "lorem ipsum ".repeat(1000);
+
+        PostReviewRequestedEvent inline = PostReviewRequestedEvent.of(1L, "t", "short", "gabriel", 1024);
+        PostReviewRequestedEvent claimCheck = PostReviewRequestedEvent.of(2L, "t", content, "gabriel", 1024);
+
+        assertThat(inline.contentInline()).isTrue();
+        assertThat(inline.content()).isEqualTo("short");
+        assertThat(claimCheck.contentInline()).isFalse();
+        assertThat(claimCheck.content()).isNull();
+        assertThat(claimCheck.contentSize()).isEqualTo(12000);
+        assertThat(claimCheck.contentHash()).isEqualTo(PostReviewRequestedEvent.contentHash(content)).hasSize(64);
+        assertThat(read(write(claimCheck, EventCodec.CBOR), PostReviewRequestedEvent.class)).isEqualTo(claimCheck);
+    }
+
+    @Test
+    void requestEvent_withoutClaimCheckFields_isReadAsInline() {
+        Message legacy = new Message("{\"postId\":1,\"title\":\"t\",\"content\":\"c\",\"author\":\"gabriel\"}"
+                .getBytes(StandardCharsets.UTF_8));
+        legacy.getMessageProperties().setContentType(EventCodec.JSON.contentType());
+
+        PostReviewRequestedEvent event = read(legacy, PostReviewRequestedEvent.class);
+
+        assertThat(event.content()).isEqualTo("c");
+        assertThat(event.requestedAt()).isNull();
+        assertThat(event.contentInline()).isTrue();
+    }
+}
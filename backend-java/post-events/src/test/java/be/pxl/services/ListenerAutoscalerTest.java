@@ -0,0 +1,40 @@
+package be.pxl.services;
+
+import be.pxl.services.events.ListenerAutoscaler;
+import be.pxl.services.events.ListenerAutoscaler.Decision;
+import be.pxl.services.events.ListenerAutoscaler.Limits;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListenerAutoscalerTest {
+
+    private final Limits limits = new Limits(1, 8, 10, 250,
+            Duration.ofSeconds(10), Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+    @Test
+    void decide_scalesUpToWhatDrainsTheBacklogInTime_cappedAtMax() {
+        // 1000 messages of 40 ms are 40 s of work, 4 consumers drain that in 10 s
+        assertThat(ListenerAutoscaler.decide(limits, 1, 1000, 40).consumers()).isEqualTo(4);
+        assertThat(ListenerAutoscaler.decide(limits, 1, 100_000, 40).consumers()).isEqualTo(8);
+    }
+
+    @Test
+    void decide_scalesDownOneConsumerPerRun_andNeverBelowMin() {
+        assertThat(ListenerAutoscaler.decide(limits, 6, 0, 40).consumers()).isEqualTo(5);
+        assertThat(ListenerAutoscaler.decide(limits, 1, 0, 40).consumers()).isEqualTo(1);
+    }
+
+    @Test
+    void decide_prefetchHoldsAboutOneWindowOfWork_withinLimits() {
+        Decision slow = ListenerAutoscaler.decide(limits, 1, 0, 40);
+        Decision fast = ListenerAutoscaler.decide(limits, 1, 0, 0.5);
+        Decision unknown = ListenerAutoscaler.decide(limits, 1, 0, 0);
+
+        assertThat(slow.prefetch()).isEqualTo(25);
+        assertThat(fast.prefetch()).isEqualTo(250);
+        assertThat(unknown.prefetch()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,127 @@
+package be.pxl.services;
+
+import be.pxl.services.events.outbox.OutboxMessage;
+import be.pxl.services.events.outbox.OutboxMessageRepository;
+import be.pxl.services.events.outbox.OutboxRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.mockito.stubbing.Stubber;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        relay = new OutboxRelay(outboxMessageRepository, rabbitTemplate, transactionTemplate,
+                new SimpleMeterRegistry(), 2, Duration.ofDays(1), Duration.ofSeconds(1), "post.outbox");
+    }
+
+    private void confirmEachSend(boolean... acks) {
+        Stubber stubber = null;
+        for (boolean ack : acks) {
+            Answer<Void> answer = invocation -> {
+                invocation.<CorrelationData>getArgument(3).getFuture()
+                        .complete(new CorrelationData.Confirm(ack, ack ? null : "nacked"));
+                return null;
+            };
+            stubber = stubber == null ? doAnswer(answer) : stubber.doAnswer(answer);
+        }
+        stubber.when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private static OutboxMessage pending(Long id) {
+        return OutboxMessage.builder()
+                .id(id)
+                .exchange("posts.exchange")
+                .routingKey("posts.review.request")
+                .contentType("application/json")
+                .typeId("be.pxl.services.events.PostReviewRequestedEvent")
+                .payload("{}".getBytes())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void relayPending_publishesInBatchesUntilOutboxIsDrained() {
+        OutboxMessage m1 = pending(1L);
+        OutboxMessage m2 = pending(2L);
+        OutboxMessage m3 = pending(3L);
+        when(outboxMessageRepository.findBySentAtIsNullOrderByIdAsc(Limit.of(2)))
+                .thenReturn(List.of(m1, m2), List.of(m3));
+        confirmEachSend(true, true, true);
+
+        relay.relayPending();
+
+        verify(rabbitTemplate, times(3)).send(eq("posts.exchange"), eq("posts.review.request"),
+                any(Message.class), any(CorrelationData.class));
+        assertThat(List.of(m1, m2, m3)).allSatisfy(m -> assertThat(m.getSentAt()).isNotNull());
+    }
+
+    @Test
+    void relayPending_brokerDown_keepsRemainingMessagesPending() {
+        OutboxMessage m1 = pending(1L);
+        OutboxMessage m2 = pending(2L);
+        when(outboxMessageRepository.findBySentAtIsNullOrderByIdAsc(Limit.of(2))).thenReturn(List.of(m1, m2));
+        doAnswer(invocation -> {
+            invocation.<CorrelationData>getArgument(3).getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        })
+                .doThrow(new AmqpConnectException(new ConnectException("refused")))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        relay.relayPending();
+
+        assertThat(m1.getSentAt()).isNotNull();
+        assertThat(m2.getSentAt()).isNull();
+        verify(outboxMessageRepository, times(1)).findBySentAtIsNullOrderByIdAsc(any());
+    }
+
+    @Test
+    void relayPending_nackedMessage_isNotMarkedSent() {
+        OutboxMessage m1 = pending(1L);
+        OutboxMessage m2 = pending(2L);
+        when(outboxMessageRepository.findBySentAtIsNullOrderByIdAsc(Limit.of(2))).thenReturn(List.of(m1, m2));
+        confirmEachSend(false, true);
+
+        relay.relayPending();
+
+        // both were pipelined, but nothing after the nack may be marked or the order would break
+        verify(rabbitTemplate, times(2)).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        assertThat(m1.getSentAt()).isNull();
+        assertThat(m2.getSentAt()).isNull();
+    }
+}
@@ -0,0 +1,125 @@
+package be.pxl.services;
+
+import be.pxl.services.events.EventCodec;
+import be.pxl.services.events.EventMessaging;
+import be.pxl.services.events.PostReviewResultEvent;
+import be.pxl.services.events.ReviewDecision;
+import be.pxl.services.events.RetryTopology;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RetryTopologyTest {
+
+    private final RetryTopology topology = new RetryTopology("work.queue", 4, Duration.ofSeconds(1), 4);
+
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.getMessageConverter()).thenReturn(EventMessaging.messageConverter());
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private Message event(Integer attempt) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(EventCodec.JSON.contentType());
+        if (attempt != null) {
+            properties.setHeader(RetryTopology.ATTEMPT_HEADER, attempt);
+        }
+        return EventMessaging.messageConverter().toMessage(new PostReviewResultEvent("e1", 1L,
+                ReviewDecision.APPROVED, "rita", null, Instant.now()), properties);
+    }
+
+    private void failWith(Throwable failure, Object data) throws Throwable {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.proceed()).thenThrow(failure);
+        when(invocation.getArguments()).thenReturn(new Object[] {null, data});
+
+        MethodInterceptor advice = topology.retryAdvice(rabbitTemplate, Duration.ofSeconds(1));
+        assertThat(advice.invoke(invocation)).isNull();
+    }
+
+    private Message sentTo(String queue) {
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq(""), eq(queue), captor.capture(), any(CorrelationData.class));
+        return captor.getValue();
+    }
+
+    @Test
+    void declarables_retryQueuesBackOffExponentially_andDeadLetterBackToWorkQueue() {
+        List<Queue> queues = topology.declarables().getDeclarablesByType(Queue.class);
+
+        assertThat(queues).extracting(Queue::getName).containsExactly(
+                "work.queue.retry.1", "work.queue.retry.2", "work.queue.retry.3", "work.queue.dlq");
+        assertThat(queues).extracting(queue -> queue.getArguments().get("x-message-ttl"))
+                .containsExactly(1000, 4000, 16000, null);
+        assertThat(queues.get(0).getArguments())
+                .containsEntry("x-dead-letter-exchange", "")
+                .containsEntry("x-dead-letter-routing-key", "work.queue");
+    }
+
+    @Test
+    void retryableFailure_goesToRetryQueueOfItsAttempt() throws Throwable {
+        failWith(new IllegalStateException("database down"), event(2));
+
+        Message retried = sentTo("work.queue.retry.2");
+        assertThat((Integer) retried.getMessageProperties().getHeader(RetryTopology.ATTEMPT_HEADER)).isEqualTo(3);
+        verify(rabbitTemplate, never()).send(eq(""), eq("work.queue.dlq"), any(Message.class),
+                any(CorrelationData.class));
+    }
+
+    @Test
+    void lastAttemptOrFatalFailure_goesToDeadLetterQueue() throws Throwable {
+        failWith(new IllegalStateException("database down"), event(4));
+        failWith(new IllegalArgumentException("unknown post"), event(null));
+
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate, times(2))
+                .send(eq(""), eq("work.queue.dlq"), captor.capture(), any(CorrelationData.class));
+        assertThat((String) captor.getAllValues().get(1).getMessageProperties()
+                .getHeader(RetryTopology.EXCEPTION_HEADER)).isEqualTo("unknown post");
+    }
+
+    @Test
+    void failedBatch_deadLettersUnreadableMessages_andRetriesTheRest() throws Throwable {
+        Message unreadable = new Message("{not json".getBytes(StandardCharsets.UTF_8));
+        unreadable.getMessageProperties().setContentType(EventCodec.JSON.contentType());
+        unreadable.getMessageProperties().setHeader("__TypeId__", PostReviewResultEvent.class.getName());
+
+        Message readable = event(null);
+
+        failWith(new IllegalStateException("conversion failed"), List.of(readable, unreadable));
+
+        assertThat(sentTo("work.queue.retry.1").getBody()).isEqualTo(readable.getBody());
+        assertThat(sentTo("work.queue.dlq").getBody()).isEqualTo(unreadable.getBody());
+    }
+}
@@ -2,8 +2,10 @@ package be.pxl.services;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class PostServiceApplication
 {
     public static void main( String[] args ) { SpringApplication.run(PostServiceApplication.class, args); }
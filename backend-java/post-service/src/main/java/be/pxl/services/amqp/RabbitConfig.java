@@ -1,14 +1,26 @@
 package be.pxl.services.amqp;
 
+import be.pxl.services.events.EventMessaging;
+import be.pxl.services.events.ListenerAutoscaler;
+import be.pxl.services.events.RetryTopology;
+import be.pxl.services.messaging.ReviewResultListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class RabbitConfig {
 
@@ -18,6 +30,9 @@ public class RabbitConfig {
     @Value("${app.rabbitmq.review-result-queue}")
     private String reviewResultQueueName;
 
+    @Value("${app.rabbitmq.compress-above-bytes:4096}")
+    private int compressAboveBytes;
+
     @Bean
     public Queue reviewRequestQueue() {
         return QueueBuilder.durable(reviewRequestQueueName).build();
@@ -28,16 +43,97 @@ public class RabbitConfig {
         return QueueBuilder.durable(reviewResultQueueName).build();
     }
 
+    /**
+     * Failed review results wait in review-result-queue.retry.N queues with a growing TTL and end up in
+     * the .dlq queue once they fail fatally or max-attempts times.
+     */
+    @Bean
+    public RetryTopology reviewResultRetryTopology(
+            @Value("${app.rabbitmq.retry.max-attempts:4}") int maxAttempts,
+            @Value("${app.rabbitmq.retry.initial-backoff:PT1S}") Duration initialBackoff,
+            @Value("${app.rabbitmq.retry.multiplier:4}") double multiplier) {
+        return new RetryTopology(reviewResultQueueName, maxAttempts, initialBackoff, multiplier);
+    }
+
+    @Bean
+    public Declarables reviewResultRetryQueues(RetryTopology reviewResultRetryTopology) {
+        return reviewResultRetryTopology.declarables();
+    }
+
+    /**
+     * Reads JSON and CBOR events alike; which codec a queue is written in is chosen per producer
+     * with app.rabbitmq.review-request-codec and app.rabbitmq.review-result-codec.
+     */
     @Bean
-    public Jackson2JsonMessageConverter jackson2JsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter eventMessageConverter() {
+        return EventMessaging.messageConverter();
     }
 
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
-                                         Jackson2JsonMessageConverter converter) {
+                                         MessageConverter converter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(converter);
+        template.setBeforePublishPostProcessors(
+                EventMessaging.schemaVersionHeader(),
+                EventMessaging.compressAbove(compressAboveBytes));
+        // unroutable messages come back as returns instead of being dropped silently
+        template.setMandatory(true);
         return template;
     }
-}
\ No newline at end of file
+
+    /**
+     * Adjusts consumers and prefetch of the review result container to the depth of its queue.
+     * The decisions are published as rabbit.autoscaler.* metrics tagged with the queue.
+     */
+    @Bean
+    public ListenerAutoscaler reviewResultAutoscaler(
+            RabbitListenerEndpointRegistry registry,
+            AmqpAdmin amqpAdmin,
+            MeterRegistry meterRegistry,
+            @Value("${app.rabbitmq.autoscale.min-consumers:1}") int minConsumers,
+            @Value("${app.rabbitmq.autoscale.max-consumers:8}") int maxConsumers,
+            @Value("${app.rabbitmq.autoscale.min-prefetch:250}") int minPrefetch,
+            @Value("${app.rabbitmq.autoscale.max-prefetch:1000}") int maxPrefetch,
+            @Value("${app.rabbitmq.autoscale.target-drain-time:PT10S}") Duration targetDrainTime,
+            @Value("${app.rabbitmq.autoscale.prefetch-window:PT1S}") Duration prefetchWindow,
+            @Value("${app.rabbitmq.autoscale.interval:PT5S}") Duration interval,
+            @Value("${app.rabbitmq.review-result-batch-size:50}") int batchSize) {
+        // the broker must always be allowed to push at least one full batch
+        return new ListenerAutoscaler(ReviewResultListener.LISTENER_ID, reviewResultQueueName, registry,
+                amqpAdmin, meterRegistry,
+                new ListenerAutoscaler.Limits(minConsumers, maxConsumers, Math.max(minPrefetch, batchSize),
+                        Math.max(maxPrefetch, batchSize),
+                        targetDrainTime, prefetchWindow, interval));
+    }
+
+    /**
+     * Delivers review results to the listener as a list of up to batch-size messages, or whatever
+     * arrived within receive-timeout. The whole batch is acknowledged once the listener returns.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory reviewResultBatchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            MessageConverter converter,
+            RabbitTemplate rabbitTemplate,
+            ListenerAutoscaler reviewResultAutoscaler,
+            RetryTopology reviewResultRetryTopology,
+            @Value("${app.rabbitmq.review-result-batch-size:50}") int batchSize,
+            @Value("${app.rabbitmq.review-result-receive-timeout:PT0.2S}") Duration receiveTimeout,
+            @Value("${app.rabbitmq.retry.confirm-timeout:PT5S}") Duration retryConfirmTimeout) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(converter);
+        factory.setAfterReceivePostProcessors(EventMessaging.decompressing());
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeout.toMillis());
+        reviewResultAutoscaler.configure(factory);
+        // retry outermost: a failed delivery is timed like any other, then routed to a retry queue
+        factory.setAdviceChain(reviewResultRetryTopology.retryAdvice(rabbitTemplate, retryConfirmTimeout),
+                reviewResultAutoscaler.timingAdvice());
+        return factory;
+    }
+}
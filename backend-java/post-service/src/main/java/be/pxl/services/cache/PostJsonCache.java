@@ -0,0 +1,64 @@
+package be.pxl.services.cache;
+
+import be.pxl.services.dto.PostJson;
+import be.pxl.services.entity.Post;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON of single posts keyed by (id, version). A new version is a new key,
+ * so entries never need to be invalidated; the cache is bounded by the total number of bytes it holds.
+ */
+@Component
+public class PostJsonCache {
+
+    private static final String CACHE_NAME = "postJson";
+
+    private final Cache<Key, byte[]> cache;
+    private final ObjectWriter writer;
+
+    public PostJsonCache(@Value("${app.cache.post-json.max-bytes:16777216}") long maxBytes,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<Key, byte[]>weigher((key, body) -> body.length)
+                .recordStats()
+                .build();
+        this.writer = objectMapper.writerFor(Post.class);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public PostJson get(Long id, Long version, Supplier<Post> loader) {
+        byte[] cached = cache.getIfPresent(new Key(id, version));
+        if (cached != null) {
+            return new PostJson(id, version, cached);
+        }
+
+        // the post may have changed since its version was read, so cache it under the version actually loaded
+        Post post = loader.get();
+        byte[] body = serialize(post);
+        cache.put(new Key(post.getId(), post.getVersion()), body);
+        return new PostJson(post.getId(), post.getVersion(), body);
+    }
+
+    private byte[] serialize(Post post) {
+        try {
+            return writer.writeValueAsBytes(post);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Key(Long id, Long version) {}
+}
@@ -0,0 +1,50 @@
+package be.pxl.services.cache;
+
+import be.pxl.services.dto.PostPage;
+import be.pxl.services.dto.PostSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of the published feed, both the full list and its keyset pages.
+ * It is invalidated whenever the set of PUBLISHED posts changes; the TTL only bounds staleness
+ * caused by writes from other instances. Hit and miss counts are exported as "cache.gets{cache=publishedFeed}".
+ */
+@Component
+public class PublishedFeedCache {
+
+    private static final String CACHE_NAME = "publishedFeed";
+
+    private final Cache<String, PostPage<PostSummary>> cache;
+
+    // part of every key, so a load that started before an invalidation can never be served afterwards
+    private final AtomicLong generation = new AtomicLong();
+
+    public PublishedFeedCache(@Value("${app.cache.published-feed.max-entries:256}") long maxEntries,
+                              @Value("${app.cache.published-feed.ttl:PT30S}") Duration ttl,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public PostPage<PostSummary> get(String key, Supplier<PostPage<PostSummary>> loader) {
+        return cache.get(generation.get() + ":" + key, k -> loader.get());
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+}
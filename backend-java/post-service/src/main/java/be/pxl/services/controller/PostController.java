@@ -1,18 +1,30 @@
 package be.pxl.services.controller;
 
 import be.pxl.services.dto.PostDTO;
+import be.pxl.services.dto.PostJson;
+import be.pxl.services.dto.PostPage;
+import be.pxl.services.dto.PostSummary;
 import be.pxl.services.entity.Post;
 import be.pxl.services.entity.PostStatus;
+import be.pxl.services.notification.ReviewNotificationBroadcaster;
+import be.pxl.services.service.PostExportService;
 import be.pxl.services.service.PostService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/posts")
@@ -23,10 +35,20 @@ public class PostController {
     private static final String ROLE_EDITOR = "EDITOR";
     private static final String ROLE_REVIEWER = "REVIEWER";
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final PostService postService;
+    private final PostExportService postExportService;
+    private final ReviewNotificationBroadcaster notificationBroadcaster;
 
-    public PostController(PostService postService) {
+    public PostController(PostService postService,
+                          PostExportService postExportService,
+                          ReviewNotificationBroadcaster notificationBroadcaster) {
         this.postService = postService;
+        this.postExportService = postExportService;
+        this.notificationBroadcaster = notificationBroadcaster;
     }
 
     private boolean isEditor(String role) {
@@ -41,6 +63,26 @@ public class PostController {
         return ROLE_EDITOR.equalsIgnoreCase(role) || ROLE_REVIEWER.equalsIgnoreCase(role);
     }
 
+    private boolean isPaged(Integer limit, String cursor) {
+        return limit != null || cursor != null;
+    }
+
+    private <T> ResponseEntity<List<T>> pagedResponse(Supplier<PostPage<T>> pageSupplier) {
+        PostPage<T> page;
+        try {
+            page = pageSupplier.get();
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected page request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
     @PostMapping
     public ResponseEntity<Post> createPost(
             @RequestBody Post post,
@@ -81,24 +123,50 @@ public class PostController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Post>> getAllPosts(
-            @RequestHeader("X-User-Role") String role) {
+    public ResponseEntity<List<PostSummary>> getAllPosts(
+            @RequestHeader("X-User-Role") String role,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
 
         if (!isEditorOrReviewer(role)) {
             log.warn("Forbidden getAllPosts attempt by role={}", role);
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
+        if (isPaged(limit, cursor)) {
+            return pagedResponse(() -> postService.getPostsPage(null, cursor, limit));
+        }
         return ResponseEntity.ok(postService.getAllPosts());
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPosts(
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!isEditorOrReviewer(role)) {
+            log.warn("Forbidden exportPosts attempt by role={}", role);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        StreamingResponseBody body = postExportService::exportPosts;
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/published")
-    public ResponseEntity<List<Post>> getPublishedPosts() {
+    public ResponseEntity<List<PostSummary>> getPublishedPosts(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+
+        if (isPaged(limit, cursor)) {
+            return pagedResponse(() -> postService.getPostsPage(PostStatus.PUBLISHED, cursor, limit));
+        }
         return ResponseEntity.ok(postService.getAllPublishedPosts());
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Post>> searchPosts(
+    public ResponseEntity<List<PostSummary>> searchPosts(
             @RequestParam(required = false) String text,
             @RequestParam(required = false) String author,
             @RequestParam(required = false)
@@ -106,7 +174,7 @@ public class PostController {
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
 
-        List<Post> result = postService.searchPosts(text, author, from, to);
+        List<PostSummary> result = postService.searchPosts(text, author, from, to);
         return ResponseEntity.ok(result);
     }
 
@@ -145,13 +213,18 @@ public class PostController {
     }
 
     @GetMapping("/requested")
-    public ResponseEntity<List<Post>> getRequestedPosts(
-            @RequestHeader("X-User-Role") String role) {
+    public ResponseEntity<List<PostSummary>> getRequestedPosts(
+            @RequestHeader("X-User-Role") String role,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
 
         if (!isReviewer(role)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
+        if (isPaged(limit, cursor)) {
+            return pagedResponse(() -> postService.getPostsPage(PostStatus.REQUESTED, cursor, limit));
+        }
         return ResponseEntity.ok(postService.getPostsByStatus(PostStatus.REQUESTED));
     }
 
@@ -164,21 +237,69 @@ public class PostController {
         return ResponseEntity.ok(updated);
     }
 
+    @PostMapping("/internal/batch")
+    public ResponseEntity<List<Post>> getPostsInternal(@RequestBody List<Long> ids) {
+        try {
+            return ResponseEntity.ok(postService.getPostsByIds(ids));
+        } catch (IllegalArgumentException ex) {
+            log.warn("Rejected batch lookup of {} ids: {}", ids.size(), ex.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/internal/{id}")
-    public ResponseEntity<Post> getPostInternal(@PathVariable Long id) {
-        Post post = postService.getPostById(id);
-        return ResponseEntity.ok(post);
+    public ResponseEntity<byte[]> getPostInternal(@PathVariable Long id, WebRequest request) {
+        return postJsonResponse(id, request);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Post> getPostById(@PathVariable Long id) {
-        Post post = postService.getPostById(id);
-        return ResponseEntity.ok(post);
+    public ResponseEntity<byte[]> getPostById(@PathVariable Long id, WebRequest request) {
+        return postJsonResponse(id, request);
+    }
+
+    private ResponseEntity<byte[]> postJsonResponse(Long id, WebRequest request) {
+        Long version = postService.getPostVersion(id);
+        if (request.checkNotModified(PostJson.etag(id, version))) {
+            // 304 Not Modified, the post is neither loaded nor serialized
+            return null;
+        }
+
+        PostJson json = postService.getPostJson(id, version);
+        return ResponseEntity.ok()
+                .eTag(json.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json.body());
     }
 
     @GetMapping("/notifications")
-    public List<PostDTO> getReviewNotifications(@RequestParam String editor) {
-        return postService.getReviewNotifications(editor);
+    public List<PostDTO> getReviewNotifications(
+            @RequestParam String editor,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) Long after) {
+        // after is the reviewSequence of the last decision seen; since is kept for existing clients
+        if (after != null) {
+            return postService.getReviewNotificationsAfter(editor, after);
+        }
+        return postService.getReviewNotifications(editor, since);
+    }
+
+    @GetMapping(path = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamReviewNotifications(
+            @RequestParam String editor,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        // only a reconnect replays from the database, a fresh subscription starts empty
+        Long after = null;
+        if (lastEventId != null) {
+            try {
+                after = Long.parseLong(lastEventId);
+            } catch (NumberFormatException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Last-Event-ID must be a review sequence");
+            }
+        }
+        return notificationBroadcaster.subscribe(editor, after,
+                sequence -> postService.getReviewNotificationsAfter(editor, sequence));
     }
 
 }
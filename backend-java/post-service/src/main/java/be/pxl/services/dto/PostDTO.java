@@ -2,7 +2,7 @@ package be.pxl.services.dto;
 
 import be.pxl.services.entity.Post;
 import be.pxl.services.entity.PostStatus;
-import be.pxl.services.entity.ReviewDecision;
+import be.pxl.services.events.ReviewDecision;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -19,6 +19,7 @@ public class PostDTO {
     private String lastReviewComment;
     private String lastReviewReviewer;
     private LocalDateTime lastReviewedAt;
+    private Long reviewSequence;
 
     public PostDTO(Post post) {
         this.id = post.getId();
@@ -32,6 +33,7 @@ public class PostDTO {
         this.lastReviewComment = post.getLastReviewComment();
         this.lastReviewReviewer = post.getLastReviewReviewer();
         this.lastReviewedAt = post.getLastReviewedAt();
+        this.reviewSequence = post.getReviewSequence();
     }
 }
 
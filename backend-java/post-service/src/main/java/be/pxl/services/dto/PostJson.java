@@ -0,0 +1,19 @@
+package be.pxl.services.dto;
+
+/**
+ * A post already serialized to JSON, together with the version it was serialized from.
+ */
+public record PostJson(
+        Long id,
+        Long version,
+        byte[] body
+) {
+
+    public String etag() {
+        return etag(id, version);
+    }
+
+    public static String etag(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,8 @@
+package be.pxl.services.dto;
+
+import java.util.List;
+
+public record PostPage<T>(
+        List<T> items,
+        String nextCursor
+) {}
@@ -0,0 +1,17 @@
+package be.pxl.services.dto;
+
+import be.pxl.services.entity.PostStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * List view of a post. Selected by the repository as a constructor projection, so the
+ * content column is never read; the full post is only available through /api/posts/{id}.
+ */
+public record PostSummary(
+        Long id,
+        String title,
+        String author,
+        PostStatus status,
+        LocalDateTime createdAt
+) {}
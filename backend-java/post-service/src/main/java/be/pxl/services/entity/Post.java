@@ -1,12 +1,20 @@
 package be.pxl.services.entity;
 
+import be.pxl.services.events.ReviewDecision;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        @Index(name = "idx_posts_created_at_id", columnList = "createdAt, id"),
+        @Index(name = "idx_posts_status_created_at", columnList = "status, createdAt"),
+        @Index(name = "idx_posts_status_author", columnList = "status, author"),
+        @Index(name = "idx_posts_author_last_reviewed_at", columnList = "author, lastReviewedAt"),
+        @Index(name = "idx_posts_author_review_sequence", columnList = "author, reviewSequence")
+})
 @Getter
 @Setter
 @Builder
@@ -36,4 +44,12 @@ public class Post {
     private String lastReviewComment;
     private String lastReviewReviewer;
     private LocalDateTime lastReviewedAt;
+
+    // position of the last review result in commit order, see ReviewSequence
+    private Long reviewSequence;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
@@ -0,0 +1,39 @@
+package be.pxl.services.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Id of a consumed event, written in the same transaction as the changes the event caused.
+ */
+@Entity
+@Table(name = "processed_events", indexes = {
+        @Index(name = "idx_processed_events_processed_at", columnList = "processedAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedEvent implements Persistable<String> {
+
+    @Id
+    @Column(length = 64)
+    private String eventId;
+
+    @Column(nullable = false)
+    private LocalDateTime processedAt;
+
+    @Override
+    public String getId() {
+        return eventId;
+    }
+
+    // rows are only ever inserted, so save() never needs the select that merge() would issue first
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -1,6 +0,0 @@
-package be.pxl.services.entity;
-
-public enum ReviewDecision {
-    APPROVED,
-    REJECTED
-}
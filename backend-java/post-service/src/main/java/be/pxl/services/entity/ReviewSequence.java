@@ -0,0 +1,26 @@
+package be.pxl.services.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Single-row counter that numbers applied review results. The row stays locked until the transaction
+ * that took numbers commits, so the numbers become visible in commit order and readers can use them
+ * as a gap-free replay cursor.
+ */
+@Entity
+@Table(name = "review_sequence")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSequence {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long lastValue;
+}
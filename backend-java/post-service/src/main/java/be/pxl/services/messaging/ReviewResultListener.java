@@ -1,52 +1,54 @@
 package be.pxl.services.messaging;
 
-import be.pxl.services.dto.PostReviewResultEvent;
+import be.pxl.services.cache.PublishedFeedCache;
+import be.pxl.services.dto.PostDTO;
 import be.pxl.services.entity.Post;
-import be.pxl.services.entity.PostStatus;
-import be.pxl.services.entity.ReviewDecision;
-import be.pxl.services.repository.PostRepository;
+import be.pxl.services.events.PostReviewResultEvent;
+import be.pxl.services.notification.ReviewNotificationBroadcaster;
+import be.pxl.services.search.PostSearchIndex;
 import be.pxl.services.service.PostService;
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
+import java.util.List;
 
 @Component
 @Slf4j
 public class ReviewResultListener {
 
-    private final PostRepository postRepository;
-
-    public ReviewResultListener(PostRepository postRepository) {
-        this.postRepository = postRepository;
+    public static final String LISTENER_ID = "reviewResultListener";
+
+    private final PostService postService;
+    private final PostSearchIndex searchIndex;
+    private final PublishedFeedCache feedCache;
+    private final ReviewNotificationBroadcaster notificationBroadcaster;
+
+    public ReviewResultListener(PostService postService,
+                                PostSearchIndex searchIndex,
+                                PublishedFeedCache feedCache,
+                                ReviewNotificationBroadcaster notificationBroadcaster) {
+        this.postService = postService;
+        this.searchIndex = searchIndex;
+        this.feedCache = feedCache;
+        this.notificationBroadcaster = notificationBroadcaster;
     }
 
-    @RabbitListener(queues = "${app.rabbitmq.review-result-queue}")
-    public void handleReviewResult(PostReviewResultEvent event) {
-        log.info("Received review result event for post {}: decision={}, reviewer={}, comment='{}'",
-                event.postId(), event.decision(), event.reviewer(), event.comment());
-
-        Post post = postRepository.findById(event.postId())
-                .orElseThrow(() -> new IllegalArgumentException("Post not found: " + event.postId()));
+    @RabbitListener(id = LISTENER_ID, queues = "${app.rabbitmq.review-result-queue}",
+            containerFactory = "reviewResultBatchContainerFactory")
+    public void handleReviewResults(List<PostReviewResultEvent> events) {
+        log.info("Received batch of {} review result events", events.size());
 
-        if (event.decision() == ReviewDecision.APPROVED) {
-            post.setStatus(PostStatus.PUBLISHED);
-        } else if (event.decision() == ReviewDecision.REJECTED) {
-            post.setStatus(PostStatus.REJECTED);
+        // the batch is committed when this returns, so the in-memory views never run ahead of the database
+        List<Post> updated = postService.applyReviewResults(events);
+        if (updated.isEmpty()) {
+            return;
         }
 
-        post.setLastReviewDecision(event.decision());
-        post.setLastReviewComment(event.comment());
-        post.setLastReviewReviewer(event.reviewer());
-        post.setLastReviewedAt(LocalDateTime.now());
+        updated.forEach(searchIndex::index);
+        feedCache.invalidate();
+        updated.forEach(post -> notificationBroadcaster.publish(new PostDTO(post)));
 
-        postRepository.save(post);
-
-        log.info("Post {} status changed to {}, lastReviewDecision={}, lastReviewComment='{}'",
-                post.getId(), post.getStatus(), post.getLastReviewDecision(), post.getLastReviewComment());
+        log.info("Applied review results to {} posts", updated.size());
     }
 }
-
@@ -0,0 +1,157 @@
+package be.pxl.services.notification;
+
+import be.pxl.services.dto.PostDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+/**
+ * Pushes review decisions to the editors that are connected over server-sent events.
+ * Each event id is the decision's reviewSequence, so a reconnecting client sends it back as
+ * Last-Event-ID and only the decisions it missed are replayed from the database. Unlike
+ * lastReviewedAt, which a whole batch shares, the sequence is unique and follows commit order.
+ * A reconnecting stream is registered before the database is asked what it missed, so a decision
+ * committed in between is delivered live; live decisions arriving during the replay are held back
+ * and only sent after it, and any that the replay already covered are dropped by their sequence.
+ */
+@Component
+public class ReviewNotificationBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewNotificationBroadcaster.class);
+
+    static final String EVENT_NAME = "review";
+
+    private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    public ReviewNotificationBroadcaster(@Value("${app.notifications.sse-timeout:PT30M}") Duration timeout,
+                                         MeterRegistry meterRegistry) {
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("post.notifications.subscribers", this, ReviewNotificationBroadcaster::subscriberCount)
+                .description("Open review notification streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the editor. With lastSequence, the decisions after it are loaded with
+     * missedAfter, newest first as the repository returns them, and replayed before any live one;
+     * without it the stream starts empty.
+     */
+    public SseEmitter subscribe(String editor, Long lastSequence, LongFunction<List<PostDTO>> missedAfter) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(editor, emitter, lastSequence);
+        subscriptions.computeIfAbsent(editor, e -> ConcurrentHashMap.newKeySet()).add(subscription);
+
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(ex -> unsubscribe(subscription));
+
+        if (lastSequence != null) {
+            List<PostDTO> missed;
+            try {
+                missed = missedAfter.apply(lastSequence);
+            } catch (RuntimeException ex) {
+                unsubscribe(subscription);
+                throw ex;
+            }
+            subscription.replay(missed);
+        }
+        return emitter;
+    }
+
+    public void publish(PostDTO notification) {
+        Set<Subscription> editorSubscriptions = subscriptions.get(notification.getAuthor());
+        if (editorSubscriptions == null) {
+            return;
+        }
+        editorSubscriptions.forEach(subscription -> subscription.deliver(notification));
+    }
+
+    public int subscriberCount() {
+        return subscriptions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.editor, (e, editorSubscriptions) -> {
+            editorSubscriptions.remove(subscription);
+            return editorSubscriptions.isEmpty() ? null : editorSubscriptions;
+        });
+    }
+
+    /**
+     * One open stream. Sends are serialized on the subscription, and lastSent keeps the stream in
+     * sequence order without repeating a decision.
+     */
+    private final class Subscription {
+
+        private final String editor;
+        private final SseEmitter emitter;
+        private long lastSent;
+        // live decisions published while the replay is being loaded, null once it has been sent
+        private List<PostDTO> heldBack;
+
+        Subscription(String editor, SseEmitter emitter, Long lastSequence) {
+            this.editor = editor;
+            this.emitter = emitter;
+            this.lastSent = lastSequence == null ? 0 : lastSequence;
+            this.heldBack = lastSequence == null ? null : new ArrayList<>();
+        }
+
+        synchronized void deliver(PostDTO notification) {
+            if (heldBack != null) {
+                heldBack.add(notification);
+            } else {
+                sendIfNew(notification);
+            }
+        }
+
+        synchronized void replay(List<PostDTO> missed) {
+            List<PostDTO> pending = new ArrayList<>(missed);
+            pending.addAll(heldBack);
+            heldBack = null;
+            pending.sort(Comparator.comparing(PostDTO::getReviewSequence,
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+            for (PostDTO notification : pending) {
+                if (!sendIfNew(notification)) {
+                    return;
+                }
+            }
+        }
+
+        private boolean sendIfNew(PostDTO notification) {
+            Long sequence = notification.getReviewSequence();
+            if (sequence != null && sequence <= lastSent) {
+                return true;
+            }
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(sequence))
+                        .name(EVENT_NAME)
+                        .data(notification));
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Dropping review notification stream of editor {}: {}", editor, ex.getMessage());
+                unsubscribe(this);
+                emitter.completeWithError(ex);
+                return false;
+            }
+            if (sequence != null) {
+                lastSent = sequence;
+            }
+            return true;
+        }
+    }
+}
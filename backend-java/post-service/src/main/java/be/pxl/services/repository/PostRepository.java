@@ -1,13 +1,22 @@
 package be.pxl.services.repository;
 
+import be.pxl.services.dto.PostSummary;
 import be.pxl.services.entity.Post;
 import be.pxl.services.entity.PostStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface PostRepository extends JpaRepository<Post, Long> {
+public interface PostRepository extends JpaRepository<Post, Long>, PostSearchRepository {
 
     List<Post> findByStatus(PostStatus status);
 
@@ -19,4 +28,55 @@ public interface PostRepository extends JpaRepository<Post, Long> {
 
     List<Post> findByAuthorAndLastReviewDecisionIsNotNullOrderByLastReviewedAtDesc(String author);
 
+    List<Post> findByAuthorAndLastReviewedAtAfterOrderByLastReviewedAtDesc(String author, LocalDateTime since);
+
+    List<Post> findByAuthorAndReviewSequenceGreaterThanOrderByReviewSequenceDesc(String author, Long after);
+
+    @Query("select p.version from Post p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // list views, projected onto PostSummary so the content column is never selected
+
+    List<PostSummary> findSummariesBy();
+
+    List<PostSummary> findSummariesByStatus(PostStatus status);
+
+    // keyset pagination on (createdAt desc, id desc)
+
+    List<PostSummary> findSummariesByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    List<PostSummary> findSummariesByStatusOrderByCreatedAtDescIdDesc(PostStatus status, Limit limit);
+
+    @Query("""
+            select new be.pxl.services.dto.PostSummary(p.id, p.title, p.author, p.status, p.createdAt)
+            from Post p
+            where p.createdAt < :createdAt
+               or (p.createdAt = :createdAt and p.id < :id)
+            order by p.createdAt desc, p.id desc
+            """)
+    List<PostSummary> findSummaryPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Limit limit);
+
+    @Query("""
+            select new be.pxl.services.dto.PostSummary(p.id, p.title, p.author, p.status, p.createdAt)
+            from Post p
+            where p.status = :status
+              and (p.createdAt < :createdAt
+                   or (p.createdAt = :createdAt and p.id < :id))
+            order by p.createdAt desc, p.id desc
+            """)
+    List<PostSummary> findSummaryPageByStatusAfter(@Param("status") PostStatus status,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Limit limit);
+
+    // full-table export; rows are fetched in chunks by a server-side cursor (useCursorFetch=true)
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Post> streamAllByOrderByIdAsc();
+
 }
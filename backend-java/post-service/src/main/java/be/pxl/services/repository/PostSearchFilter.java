@@ -0,0 +1,17 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.entity.PostStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Predicates of a post search that are evaluated by the database. Null fields do not restrict the result.
+ */
+public record PostSearchFilter(
+        PostStatus status,
+        Collection<Long> ids,
+        String authorPrefix,
+        LocalDateTime createdFrom,
+        LocalDateTime createdBefore
+) {}
@@ -0,0 +1,10 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.dto.PostSummary;
+
+import java.util.List;
+
+public interface PostSearchRepository {
+
+    List<PostSummary> search(PostSearchFilter filter);
+}
@@ -0,0 +1,81 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.dto.PostSummary;
+import be.pxl.services.entity.Post;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the search query with the Criteria API so that status, author and date range become SQL predicates
+ * served by the (status, createdAt) and (status, author) indexes on the posts table.
+ * Id sets from the text index become an IN list only up to MAX_IN_LIST_SIZE; a broad text match is
+ * applied to the rows the other predicates return instead, so the statement never grows with the table.
+ */
+class PostSearchRepositoryImpl implements PostSearchRepository {
+
+    static final int MAX_IN_LIST_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PostSummary> search(PostSearchFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PostSummary> query = cb.createQuery(PostSummary.class);
+        Root<Post> post = query.from(Post.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.status() != null) {
+            predicates.add(cb.equal(post.get("status"), filter.status()));
+        }
+        Set<Long> idsToFilter = null;
+        if (filter.ids() != null && filter.ids().size() <= MAX_IN_LIST_SIZE) {
+            predicates.add(post.get("id").in(filter.ids()));
+        } else if (filter.ids() != null) {
+            idsToFilter = filter.ids() instanceof Set<Long> set ? set : new HashSet<>(filter.ids());
+        }
+        if (filter.authorPrefix() != null && !filter.authorPrefix().isBlank()) {
+            // prefix match keeps the (status, author) index usable; the column collation makes it case-insensitive
+            predicates.add(cb.like(post.get("author"), escapeLike(filter.authorPrefix().trim()) + "%", '\\'));
+        }
+        if (filter.createdFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(post.get("createdAt"), filter.createdFrom()));
+        }
+        if (filter.createdBefore() != null) {
+            predicates.add(cb.lessThan(post.get("createdAt"), filter.createdBefore()));
+        }
+
+        query.select(cb.construct(PostSummary.class,
+                        post.get("id"),
+                        post.get("title"),
+                        post.get("author"),
+                        post.get("status"),
+                        post.get("createdAt")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.desc(post.get("createdAt")), cb.desc(post.get("id")));
+
+        List<PostSummary> rows = entityManager.createQuery(query).getResultList();
+        if (idsToFilter == null) {
+            return rows;
+        }
+        Set<Long> matching = idsToFilter;
+        return rows.stream()
+                .filter(row -> matching.contains(row.id()))
+                .toList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
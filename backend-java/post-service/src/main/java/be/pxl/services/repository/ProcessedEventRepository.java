@@ -0,0 +1,21 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.entity.ProcessedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, String> {
+
+    @Query("select e.eventId from ProcessedEvent e where e.eventId in :eventIds")
+    Set<String> findExistingIds(@Param("eventIds") Collection<String> eventIds);
+
+    @Modifying
+    @Query("delete from ProcessedEvent e where e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
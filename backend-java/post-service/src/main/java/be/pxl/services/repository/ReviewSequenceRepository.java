@@ -0,0 +1,17 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.entity.ReviewSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ReviewSequenceRepository extends JpaRepository<ReviewSequence, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ReviewSequence s where s.id = :id")
+    Optional<ReviewSequence> findByIdForUpdate(@Param("id") Long id);
+}
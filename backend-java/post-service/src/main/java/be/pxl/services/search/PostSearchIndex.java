@@ -0,0 +1,136 @@
+package be.pxl.services.search;
+
+import be.pxl.services.entity.Post;
+import be.pxl.services.entity.PostStatus;
+import be.pxl.services.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the title and content of PUBLISHED posts.
+ * Terms are kept in a sorted map so a query token matches every indexed term it is a prefix of;
+ * the posting lists of all query tokens are then intersected.
+ * Matching is per word prefix, not substring: "hel" finds "hello", "ell" does not. The database
+ * search this replaced used contains on the whole title and content.
+ * Author and date filters are not indexed here, they are pushed down to the database.
+ */
+@Component
+public class PostSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final PostRepository postRepository;
+
+    // replaced as a whole by rebuild(), so searches never see a half-built index
+    private volatile NavigableMap<String, Set<Long>> textIndex = new ConcurrentSkipListMap<>();
+    private volatile Map<Long, Set<String>> documentTerms = new ConcurrentHashMap<>();
+
+    public PostSearchIndex(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    /**
+     * Loads the published posts and swaps in a fresh index. The posts are read while holding the lock,
+     * so an index() or remove() made during the rebuild waits and is applied on top of the new index
+     * instead of being overwritten by an older snapshot.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Post> published = postRepository.findByStatus(PostStatus.PUBLISHED);
+        NavigableMap<String, Set<Long>> terms = new ConcurrentSkipListMap<>();
+        Map<Long, Set<String>> documents = new ConcurrentHashMap<>();
+        published.forEach(post -> add(post, terms, documents));
+        textIndex = terms;
+        documentTerms = documents;
+        log.info("Search index built with {} published posts", published.size());
+    }
+
+    public synchronized void index(Post post) {
+        remove(post.getId());
+        if (post.getStatus() == PostStatus.PUBLISHED) {
+            add(post, textIndex, documentTerms);
+        }
+    }
+
+    private static void add(Post post, NavigableMap<String, Set<Long>> textIndex,
+                            Map<Long, Set<String>> documentTerms) {
+        Set<String> terms = new HashSet<>();
+        terms.addAll(tokenize(post.getTitle()));
+        terms.addAll(tokenize(post.getContent()));
+
+        terms.forEach(term -> textIndex.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(post.getId()));
+        documentTerms.put(post.getId(), terms);
+    }
+
+    public synchronized void remove(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        Set<String> terms = documentTerms.remove(postId);
+        if (terms == null) {
+            return;
+        }
+        terms.forEach(term -> textIndex.computeIfPresent(term, (t, postings) -> {
+            postings.remove(postId);
+            return postings.isEmpty() ? null : postings;
+        }));
+    }
+
+    /**
+     * Returns the ids of the published posts whose title or content have, for every token of the text,
+     * a word starting with that token. Null only for blank or absent text, which does not restrict the
+     * result; text made up of separators alone, such as "!!!", matches nothing.
+     */
+    public Set<Long> matchText(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        List<String> tokens = tokenize(text);
+        if (tokens.isEmpty()) {
+            return Set.of();
+        }
+
+        NavigableMap<String, Set<Long>> index = textIndex;
+        Set<Long> candidates = null;
+        for (String token : tokens) {
+            Set<Long> matches = new HashSet<>();
+            index.subMap(token, true, token + Character.MAX_VALUE, false)
+                    .values()
+                    .forEach(matches::addAll);
+
+            if (candidates == null) {
+                candidates = matches;
+            } else {
+                candidates.retainAll(matches);
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    public int size() {
+        return documentTerms.size();
+    }
+
+    static List<String> tokenize(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(value.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+}
@@ -0,0 +1,64 @@
+package be.pxl.services.service;
+
+import be.pxl.services.entity.Post;
+import be.pxl.services.repository.PostRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes all posts as newline-delimited JSON while they are read from the database,
+ * so memory use does not depend on the number of rows.
+ */
+@Service
+public class PostExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostExportService.class);
+
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final PostRepository postRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter writer;
+
+    public PostExportService(PostRepository postRepository,
+                             EntityManager entityManager,
+                             ObjectMapper objectMapper) {
+        this.postRepository = postRepository;
+        this.entityManager = entityManager;
+        this.writer = objectMapper.writerFor(Post.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportPosts(OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Post> posts = postRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Post> iterator = posts.iterator();
+            while (iterator.hasNext()) {
+                Post post = iterator.next();
+                writer.writeValue(out, post);
+                out.write('\n');
+                // keep the persistence context empty, otherwise every streamed row stays referenced
+                entityManager.detach(post);
+
+                if (++count % FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        log.info("Exported {} posts as NDJSON", count);
+        return count;
+    }
+}
@@ -1,27 +1,62 @@
 package be.pxl.services.service;
 
+import be.pxl.services.cache.PostJsonCache;
+import be.pxl.services.cache.PublishedFeedCache;
+import be.pxl.services.dto.PostCursor;
 import be.pxl.services.dto.PostDTO;
-import be.pxl.services.dto.PostReviewRequestedEvent;
+import be.pxl.services.dto.PostJson;
+import be.pxl.services.dto.PostPage;
+import be.pxl.services.dto.PostSummary;
 import be.pxl.services.entity.Post;
 import be.pxl.services.entity.PostStatus;
+import be.pxl.services.entity.ReviewSequence;
+import be.pxl.services.events.EventCodec;
+import be.pxl.services.events.PostReviewRequestedEvent;
+import be.pxl.services.events.PostReviewResultEvent;
+import be.pxl.services.events.ReviewDecision;
+import be.pxl.services.events.outbox.OutboxService;
 import be.pxl.services.repository.PostRepository;
+import be.pxl.services.repository.PostSearchFilter;
+import be.pxl.services.repository.ReviewSequenceRepository;
+import be.pxl.services.search.PostSearchIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class PostService {
 
     private static final Logger log = LoggerFactory.getLogger(PostService.class);
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 200;
+
     private final PostRepository postRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxService outboxService;
+    private final PostSearchIndex searchIndex;
+    private final PublishedFeedCache feedCache;
+    private final PostJsonCache postJsonCache;
+    private final ProcessedEventService processedEventService;
+    private final ReviewSequenceRepository reviewSequenceRepository;
 
     @Value("${app.rabbitmq.exchange}")
     private String exchangeName;
@@ -29,14 +64,32 @@ public class PostService {
     @Value("${app.rabbitmq.review-request-routing-key}")
     private String reviewRequestRoutingKey;
 
+    @Value("${app.rabbitmq.review-request-codec:JSON}")
+    private EventCodec reviewRequestCodec;
+
+    // larger content is not embedded in the review request, review-service fetches it on demand
+    @Value("${app.rabbitmq.review-request-inline-content-max-bytes:8192}")
+    private int reviewRequestInlineContentMaxBytes;
+
     public PostService(PostRepository postRepository,
-                       RabbitTemplate rabbitTemplate) {
+                       OutboxService outboxService,
+                       PostSearchIndex searchIndex,
+                       PublishedFeedCache feedCache,
+                       PostJsonCache postJsonCache,
+                       ProcessedEventService processedEventService,
+                       ReviewSequenceRepository reviewSequenceRepository) {
         this.postRepository = postRepository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.outboxService = outboxService;
+        this.searchIndex = searchIndex;
+        this.feedCache = feedCache;
+        this.postJsonCache = postJsonCache;
+        this.processedEventService = processedEventService;
+        this.reviewSequenceRepository = reviewSequenceRepository;
     }
 
     public Post createPost(Post post) {
         post.setId(null);
+        post.setVersion(null);
         post.setCreatedAt(LocalDateTime.now());
         post.setStatus(PostStatus.DRAFT);
 
@@ -73,61 +126,146 @@ public class PostService {
         return saved;
     }
 
-    public List<Post> getAllPosts() {
+    public List<PostSummary> getAllPosts() {
         log.debug("Fetching all posts (including drafts)");
-        return postRepository.findAll();
+        return postRepository.findSummariesBy();
+    }
+
+    public List<PostSummary> getPostsByStatus(PostStatus status) {
+        return postRepository.findSummariesByStatus(status);
+    }
+
+    public List<PostSummary> getAllPublishedPosts() {
+        return feedCache.get("all", () -> {
+            log.debug("Fetching all PUBLISHED posts");
+            return new PostPage<>(List.copyOf(postRepository.findSummariesByStatus(PostStatus.PUBLISHED)), null);
+        }).items();
     }
 
-    public List<Post> getPostsByStatus(PostStatus status) {
-        return postRepository.findByStatus(status);
+    /**
+     * Returns one page of posts ordered by (createdAt, id) descending, optionally restricted to a status.
+     * The cursor is the token returned with the previous page; every page is a single index range scan.
+     */
+    public PostPage<PostSummary> getPostsPage(PostStatus status, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        if (status == PostStatus.PUBLISHED) {
+            String key = "page:" + pageSize + ":" + (cursor == null ? "" : cursor);
+            return feedCache.get(key, () -> loadPostsPage(status, cursor, pageSize));
+        }
+        return loadPostsPage(status, cursor, pageSize);
     }
 
-    public List<Post> getAllPublishedPosts() {
-        log.debug("Fetching all PUBLISHED posts");
-        return postRepository.findByStatus(PostStatus.PUBLISHED);
+    private PostPage<PostSummary> loadPostsPage(PostStatus status, String cursor, int pageSize) {
+        Limit fetchLimit = Limit.of(pageSize + 1);
+
+        List<PostSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = status == null
+                    ? postRepository.findSummariesByOrderByCreatedAtDescIdDesc(fetchLimit)
+                    : postRepository.findSummariesByStatusOrderByCreatedAtDescIdDesc(status, fetchLimit);
+        } else {
+            PostCursor position = PostCursor.decode(cursor);
+            rows = status == null
+                    ? postRepository.findSummaryPageAfter(position.createdAt(), position.id(), fetchLimit)
+                    : postRepository.findSummaryPageByStatusAfter(status, position.createdAt(), position.id(), fetchLimit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new PostPage<>(rows, null);
+        }
+
+        List<PostSummary> items = List.copyOf(rows.subList(0, pageSize));
+        PostSummary last = items.get(items.size() - 1);
+        return new PostPage<>(items, new PostCursor(last.createdAt(), last.id()).encode());
     }
 
     public void deletePost(Long id) {
         log.info("Deleting post with id={}", id);
-        postRepository.deleteById(id);
+        postRepository.findById(id).ifPresent(post -> {
+            postRepository.delete(post);
+            searchIndex.remove(id);
+            if (post.getStatus() == PostStatus.PUBLISHED) {
+                feedCache.invalidate();
+            }
+        });
     }
 
-    public List<Post> searchPosts(String text, String author,
+    public List<PostSummary> searchPosts(String text, String author,
                                   LocalDate from, LocalDate to) {
 
-        List<Post> posts = postRepository.findByStatus(PostStatus.PUBLISHED);
+        Set<Long> ids = searchIndex.matchText(text);
+        if (ids != null && ids.isEmpty()) {
+            return List.of();
+        }
 
-        return posts.stream()
-                .filter(p -> text == null || text.isBlank()
-                        || p.getTitle().toLowerCase().contains(text.toLowerCase())
-                        || p.getContent().toLowerCase().contains(text.toLowerCase()))
-                .filter(p -> author == null || author.isBlank()
-                        || p.getAuthor().toLowerCase().contains(author.toLowerCase()))
-                .filter(p -> {
-                    if (from == null && to == null) {
-                        return true;
-                    }
-                    LocalDate date = p.getCreatedAt().toLocalDate();
-                    boolean afterFrom = from == null || !date.isBefore(from);
-                    boolean beforeTo = to == null || !date.isAfter(to);
-                    return afterFrom && beforeTo;
-                })
-                .toList();
+        PostSearchFilter filter = new PostSearchFilter(
+                PostStatus.PUBLISHED,
+                ids,
+                author,
+                from == null ? null : from.atStartOfDay(),
+                to == null ? null : to.plusDays(1).atStartOfDay()
+        );
+        return postRepository.search(filter);
     }
 
+    /**
+     * An unknown id is answered with 404, so Feign clients see FeignException.NotFound instead of
+     * a server error that would count against their circuit breaker.
+     */
     public Post getPostById(Long id) {
         return postRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
+    }
+
+    /**
+     * Resolves many posts with a single query, in the order of the requested ids.
+     * Duplicate ids are collapsed and unknown ids are left out of the result.
+     */
+    public List<Post> getPostsByIds(List<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.remove(null);
+        if (uniqueIds.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " ids can be fetched at once");
+        }
+        if (uniqueIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Post> byId = postRepository.findAllById(uniqueIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        return uniqueIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Reads only the version column, which is enough to answer a conditional GET.
+     */
+    public Long getPostVersion(Long id) {
+        return postRepository.findVersionById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
+    }
+
+    public PostJson getPostJson(Long id, Long version) {
+        return postJsonCache.get(id, version, () -> getPostById(id));
     }
 
     public Post updateStatus(Long id, PostStatus newStatus) {
         Post existing = getPostById(id);
+        PostStatus previous = existing.getStatus();
         existing.setStatus(newStatus);
         Post saved = postRepository.save(existing);
+        searchIndex.index(saved);
+        if (previous == PostStatus.PUBLISHED || newStatus == PostStatus.PUBLISHED) {
+            feedCache.invalidate();
+        }
         log.info("Post {} status changed to {}", saved.getId(), saved.getStatus());
         return saved;
     }
 
+    @Transactional
     public Post submitForReview(Long id) {
         Post post = getPostById(id);
 
@@ -138,24 +276,143 @@ public class PostService {
         post.setStatus(PostStatus.REQUESTED);
         Post saved = postRepository.save(post);
 
-        PostReviewRequestedEvent event = new PostReviewRequestedEvent(
+        PostReviewRequestedEvent event = PostReviewRequestedEvent.of(
                 saved.getId(),
                 saved.getTitle(),
                 saved.getContent(),
-                saved.getAuthor()
+                saved.getAuthor(),
+                reviewRequestInlineContentMaxBytes
         );
 
-        log.info("Sending review request event for post {}", saved.getId());
-        rabbitTemplate.convertAndSend(exchangeName, reviewRequestRoutingKey, event);
+        // committed together with the REQUESTED status, OutboxRelay publishes it afterwards
+        log.info("Queueing review request event for post {}", saved.getId());
+        outboxService.enqueue(exchangeName, reviewRequestRoutingKey, event, reviewRequestCodec);
 
         return saved;
     }
 
-    public List<PostDTO> getReviewNotifications(String editor) {
-        return postRepository
-                .findByAuthorAndLastReviewDecisionIsNotNullOrderByLastReviewedAtDesc(editor)
+    /**
+     * Applies a batch of review results with one findAllById and one JDBC-batched saveAll.
+     * Redelivered events, recognised by their eventId, are dropped before any post is loaded,
+     * and results for unknown posts are skipped so a single bad id cannot fail the whole batch.
+     * A result only moves a post that is still REQUESTED. A post whose status the reviewer already set
+     * through updateStatus (the synchronous path) only gets the review details recorded; any other
+     * post was reviewed or resubmitted since, so a late or repeated result is ignored.
+     * Every updated post gets the next reviewSequence number, the replay cursor of the notifications.
+     * Returns the updated posts, each once, in the order they were first reviewed.
+     */
+    @Transactional
+    public List<Post> applyReviewResults(List<PostReviewResultEvent> events) {
+        List<PostReviewResultEvent> fresh = dropDuplicates(events);
+
+        Set<Long> ids = new LinkedHashSet<>();
+        fresh.forEach(event -> ids.add(event.postId()));
+        ids.remove(null);
+        Map<Long, Post> posts = ids.isEmpty() ? Map.of() : postRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+
+        Set<Post> updated = new LinkedHashSet<>();
+        List<String> processedIds = new ArrayList<>();
+        LocalDateTime receivedAt = LocalDateTime.now();
+        for (PostReviewResultEvent event : fresh) {
+            if (event.eventId() != null) {
+                processedIds.add(event.eventId());
+            }
+            Post post = posts.get(event.postId());
+            if (post == null) {
+                log.warn("Skipping review result for unknown post {}", event.postId());
+                continue;
+            }
+
+            // the review time travels with the event, so redeliveries and retries do not move it
+            LocalDateTime reviewedAt = event.reviewedAt() == null ? receivedAt
+                    : LocalDateTime.ofInstant(event.reviewedAt(), ZoneId.systemDefault());
+            PostStatus target = event.decision() == ReviewDecision.APPROVED ? PostStatus.PUBLISHED
+                    : event.decision() == ReviewDecision.REJECTED ? PostStatus.REJECTED : null;
+            boolean alreadyApplied = post.getStatus() == target
+                    && (post.getLastReviewedAt() == null || post.getLastReviewedAt().isBefore(reviewedAt));
+            if (target == null || (post.getStatus() != PostStatus.REQUESTED && !alreadyApplied)) {
+                log.warn("Ignoring {} result for post {} in status {}", event.decision(), post.getId(), post.getStatus());
+                continue;
+            }
+
+            post.setStatus(target);
+            post.setLastReviewDecision(event.decision());
+            post.setLastReviewComment(event.comment());
+            post.setLastReviewReviewer(event.reviewer());
+            post.setLastReviewedAt(reviewedAt);
+            updated.add(post);
+        }
+
+        assignReviewSequence(updated);
+        List<Post> saved = updated.isEmpty() ? List.of() : postRepository.saveAll(new ArrayList<>(updated));
+        processedEventService.markProcessed(processedIds);
+        return saved;
+    }
+
+    /**
+     * Takes the numbers from the locked ReviewSequence row, which stays locked until this transaction
+     * commits; a concurrent batch waits and so always gets higher numbers and commits later.
+     */
+    private void assignReviewSequence(Set<Post> posts) {
+        if (posts.isEmpty()) {
+            return;
+        }
+        ReviewSequence sequence = reviewSequenceRepository.findByIdForUpdate(ReviewSequence.ID)
+                .orElseGet(() -> new ReviewSequence(ReviewSequence.ID, 0L));
+        long next = sequence.getLastValue();
+        for (Post post : posts) {
+            post.setReviewSequence(++next);
+        }
+        sequence.setLastValue(next);
+        reviewSequenceRepository.save(sequence);
+    }
+
+    private List<PostReviewResultEvent> dropDuplicates(List<PostReviewResultEvent> events) {
+        Set<String> eventIds = new LinkedHashSet<>();
+        events.forEach(event -> eventIds.add(event.eventId()));
+        eventIds.remove(null);
+        if (eventIds.isEmpty()) {
+            return events;
+        }
+
+        Set<String> seen = new HashSet<>(processedEventService.findProcessed(eventIds));
+        List<PostReviewResultEvent> fresh = new ArrayList<>(events.size());
+        for (PostReviewResultEvent event : events) {
+            if (event.eventId() == null || seen.add(event.eventId())) {
+                fresh.add(event);
+            } else {
+                log.debug("Dropping duplicate review result {} for post {}", event.eventId(), event.postId());
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Review decisions for the editor's posts with a reviewSequence above the given one, newest first.
+     * Unlike since, this cursor does not skip decisions that share a review time or commit late.
+     */
+    public List<PostDTO> getReviewNotificationsAfter(String editor, long sequence) {
+        return postRepository.findByAuthorAndReviewSequenceGreaterThanOrderByReviewSequenceDesc(editor, sequence)
                 .stream()
                 .map(PostDTO::new)
                 .toList();
     }
+
+    public List<PostDTO> getReviewNotifications(String editor) {
+        return getReviewNotifications(editor, null);
+    }
+
+    /**
+     * Review decisions for the editor's posts, newest first. With a since cursor only the decisions
+     * made after it are returned, so a polling client no longer re-reads its whole history.
+     */
+    public List<PostDTO> getReviewNotifications(String editor, LocalDateTime since) {
+        List<Post> posts = since == null
+                ? postRepository.findByAuthorAndLastReviewDecisionIsNotNullOrderByLastReviewedAtDesc(editor)
+                : postRepository.findByAuthorAndLastReviewedAtAfterOrderByLastReviewedAtDesc(editor, since);
+        return posts.stream()
+                .map(PostDTO::new)
+                .toList();
+    }
 }
@@ -0,0 +1,108 @@
+package be.pxl.services.service;
+
+import be.pxl.services.entity.ProcessedEvent;
+import be.pxl.services.repository.ProcessedEventRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Remembers which events were already consumed. Recent ids are answered from a bounded in-memory
+ * cache; only misses are looked up in the processed_events table, with one query per batch.
+ */
+@Service
+public class ProcessedEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessedEventService.class);
+
+    private final ProcessedEventRepository processedEventRepository;
+    private final Cache<String, Boolean> recentIds;
+    private final Counter duplicates;
+    private final Duration retention;
+
+    public ProcessedEventService(ProcessedEventRepository processedEventRepository,
+                                 @Value("${app.dedup.cache-size:10000}") long cacheSize,
+                                 @Value("${app.dedup.retention:P7D}") Duration retention,
+                                 MeterRegistry meterRegistry) {
+        this.processedEventRepository = processedEventRepository;
+        this.recentIds = Caffeine.newBuilder().maximumSize(cacheSize).build();
+        this.duplicates = Counter.builder("post.events.duplicates")
+                .description("Redelivered events dropped before processing")
+                .register(meterRegistry);
+        this.retention = retention;
+    }
+
+    /**
+     * Returns the ids among the given ones that were already processed.
+     */
+    public Set<String> findProcessed(Collection<String> eventIds) {
+        Set<String> processed = new HashSet<>();
+        List<String> unknown = eventIds.stream()
+                .filter(id -> {
+                    if (recentIds.getIfPresent(id) != null) {
+                        processed.add(id);
+                        return false;
+                    }
+                    return true;
+                })
+                .toList();
+
+        if (!unknown.isEmpty()) {
+            Set<String> stored = processedEventRepository.findExistingIds(unknown);
+            stored.forEach(id -> recentIds.put(id, Boolean.TRUE));
+            processed.addAll(stored);
+        }
+        duplicates.increment(processed.size());
+        return processed;
+    }
+
+    /**
+     * Records the ids in the caller's transaction, so they are committed if and only if the
+     * changes the events caused are. The in-memory cache only learns them after that commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void markProcessed(Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        processedEventRepository.saveAll(eventIds.stream()
+                .map(id -> new ProcessedEvent(id, now))
+                .toList());
+
+        List<String> ids = List.copyOf(eventIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(id -> recentIds.put(id, Boolean.TRUE));
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.dedup.purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        int purged = processedEventRepository.deleteProcessedBefore(before);
+        if (purged > 0) {
+            log.info("Purged {} processed event ids older than {}", purged, before);
+        }
+    }
+}
@@ -1,20 +1,38 @@
 package be.pxl.services;
 
 import be.pxl.services.controller.PostController;
+import be.pxl.services.dto.PostDTO;
+import be.pxl.services.dto.PostJson;
+import be.pxl.services.dto.PostPage;
+import be.pxl.services.dto.PostSummary;
 import be.pxl.services.entity.Post;
 import be.pxl.services.entity.PostStatus;
+import be.pxl.services.notification.ReviewNotificationBroadcaster;
+import be.pxl.services.service.PostExportService;
 import be.pxl.services.service.PostService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.LongFunction;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -28,10 +46,20 @@ class PostControllerTest {
     @MockBean
     private PostService postService;
 
+    @MockBean
+    private PostExportService postExportService;
+
+    @MockBean
+    private ReviewNotificationBroadcaster notificationBroadcaster;
+
+    private static PostSummary summary(Long id, PostStatus status) {
+        return new PostSummary(id, "title", "gabriel", status, LocalDateTime.now());
+    }
+
     @Test
     void getAllPosts_asEditor_returnsList() throws Exception {
-        Post p1 = new Post();
-        Post p2 = new Post();
+        PostSummary p1 = summary(1L, PostStatus.DRAFT);
+        PostSummary p2 = summary(2L, PostStatus.PUBLISHED);
 
         when(postService.getAllPosts()).thenReturn(List.of(p1, p2));
 
@@ -51,13 +79,14 @@ class PostControllerTest {
 
     @Test
     void getPublishedPosts_returnsListWithoutRoleCheck() throws Exception {
-        Post p1 = new Post();
+        PostSummary p1 = summary(1L, PostStatus.PUBLISHED);
         when(postService.getAllPublishedPosts()).thenReturn(List.of(p1));
 
         mockMvc.perform(get("/api/posts/published"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$", hasSize(1)));
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].content").doesNotExist());
     }
 
     @Test
@@ -83,7 +112,7 @@ class PostControllerTest {
 
     @Test
     void getRequestedPosts_asReviewer_returnsList() throws Exception {
-        Post p = new Post();
+        PostSummary p = summary(3L, PostStatus.REQUESTED);
         when(postService.getPostsByStatus(PostStatus.REQUESTED))
                 .thenReturn(List.of(p));
 
@@ -99,4 +128,156 @@ class PostControllerTest {
                         .header("X-User-Role", "EDITOR"))
                 .andExpect(status().isForbidden());
     }
+
+    @Test
+    void getPublishedPosts_withLimit_returnsPageAndNextCursorHeader() throws Exception {
+        when(postService.getPostsPage(PostStatus.PUBLISHED, null, 2))
+                .thenReturn(new PostPage<>(List.of(summary(1L, PostStatus.PUBLISHED), summary(2L, PostStatus.PUBLISHED)), "next-token"));
+
+        mockMvc.perform(get("/api/posts/published")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next-token"))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void getAllPosts_invalidCursor_returnsBadRequest() throws Exception {
+        when(postService.getPostsPage(null, "garbage", null))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: garbage"));
+
+        mockMvc.perform(get("/api/posts")
+                        .param("cursor", "garbage")
+                        .header("X-User-Role", "EDITOR"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportPosts_asEditor_streamsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(postExportService).exportPosts(any());
+
+        MvcResult result = mockMvc.perform(get("/api/posts/export")
+                        .header("X-User-Role", "EDITOR"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    void exportPosts_forbiddenForOtherRoles() throws Exception {
+        mockMvc.perform(get("/api/posts/export")
+                        .header("X-User-Role", "VIEWER"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getPostById_returnsSerializedPostWithEtag() throws Exception {
+        byte[] body = "{\"id\":1,\"title\":\"t\"}".getBytes(StandardCharsets.UTF_8);
+        when(postService.getPostVersion(1L)).thenReturn(2L);
+        when(postService.getPostJson(1L, 2L)).thenReturn(new PostJson(1L, 2L, body));
+
+        mockMvc.perform(get("/api/posts/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-2\""))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.title").value("t"));
+    }
+
+    @Test
+    void getPostInternal_unknownPost_returnsNotFound() throws Exception {
+        when(postService.getPostVersion(99L))
+                .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
+
+        mockMvc.perform(get("/api/posts/internal/99"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getPostInternal_matchingIfNoneMatch_returnsNotModified() throws Exception {
+        when(postService.getPostVersion(1L)).thenReturn(2L);
+
+        mockMvc.perform(get("/api/posts/internal/1")
+                        .header("If-None-Match", "\"1-2\""))
+                .andExpect(status().isNotModified());
+
+        verify(postService, never()).getPostJson(anyLong(), anyLong());
+    }
+
+    @Test
+    void getReviewNotifications_withSince_passesCursorToService() throws Exception {
+        LocalDateTime since = LocalDateTime.of(2025, 3, 1, 10, 15, 30);
+        when(postService.getReviewNotifications("gabriel", since)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/posts/notifications")
+                        .param("editor", "gabriel")
+                        .param("since", "2025-03-01T10:15:30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        verify(postService).getReviewNotifications("gabriel", since);
+    }
+
+    @Test
+    void streamReviewNotifications_nonSequenceLastEventId_isRejected() throws Exception {
+        mockMvc.perform(get("/api/posts/notifications/stream")
+                        .param("editor", "gabriel")
+                        .header("Last-Event-ID", "2025-03-01T10:15:30"))
+                .andExpect(status().isBadRequest());
+
+        verify(notificationBroadcaster, never()).subscribe(anyString(), any(), any());
+        verify(postService, never()).getReviewNotifications(anyString(), any());
+    }
+
+    @Test
+    void streamReviewNotifications_withSequenceLastEventId_replaysAfterSequence() throws Exception {
+        when(postService.getReviewNotificationsAfter("gabriel", 17L)).thenReturn(List.of());
+        when(notificationBroadcaster.subscribe(eq("gabriel"), eq(17L), any())).thenAnswer(invocation -> {
+            invocation.<LongFunction<List<PostDTO>>>getArgument(2).apply(17L);
+            return new SseEmitter();
+        });
+
+        mockMvc.perform(get("/api/posts/notifications/stream")
+                        .param("editor", "gabriel")
+                        .header("Last-Event-ID", "17"))
+                .andExpect(request().asyncStarted());
+
+        verify(postService).getReviewNotificationsAfter("gabriel", 17L);
+        verify(postService, never()).getReviewNotifications(anyString(), any());
+    }
+
+    @Test
+    void streamReviewNotifications_freshSubscription_doesNotQueryDatabase() throws Exception {
+        when(notificationBroadcaster.subscribe(eq("gabriel"), isNull(), any())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/posts/notifications/stream").param("editor", "gabriel"))
+                .andExpect(request().asyncStarted());
+
+        verify(notificationBroadcaster).subscribe(eq("gabriel"), isNull(), any());
+
+        verify(postService, never()).getReviewNotifications(anyString(), any());
+    }
+
+    @Test
+    void getPostsInternal_batch_returnsPostsFromService() throws Exception {
+        Post p1 = new Post();
+        p1.setId(2L);
+        Post p2 = new Post();
+        p2.setId(1L);
+        when(postService.getPostsByIds(List.of(2L, 1L))).thenReturn(List.of(p1, p2));
+
+        mockMvc.perform(post("/api/posts/internal/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[2,1]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(2))
+                .andExpect(jsonPath("$[1].id").value(1));
+    }
 }
@@ -0,0 +1,54 @@
+package be.pxl.services;
+
+import be.pxl.services.entity.Post;
+import be.pxl.services.entity.PostStatus;
+import be.pxl.services.repository.PostRepository;
+import be.pxl.services.service.PostExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PostExportServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Test
+    void exportPosts_writesOneJsonLinePerPostAndDetachesIt() throws Exception {
+        Post p1 = Post.builder().id(1L).title("a").author("gabriel")
+                .createdAt(LocalDateTime.of(2025, 1, 1, 10, 0)).status(PostStatus.PUBLISHED).build();
+        Post p2 = Post.builder().id(2L).title("b").author("john")
+                .createdAt(LocalDateTime.of(2025, 1, 2, 10, 0)).status(PostStatus.DRAFT).build();
+        when(postRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(p1, p2));
+
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        PostExportService exportService = new PostExportService(postRepository, entityManager, objectMapper);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportPosts(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asLong()).isEqualTo(1L);
+        assertThat(objectMapper.readTree(lines[1]).get("title").asText()).isEqualTo("b");
+        verify(entityManager).detach(p1);
+        verify(entityManager).detach(p2);
+    }
+}
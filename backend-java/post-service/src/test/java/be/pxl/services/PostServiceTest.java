@@ -1,24 +1,48 @@
 package be.pxl.services;
 
+import be.pxl.services.cache.PostJsonCache;
+import be.pxl.services.cache.PublishedFeedCache;
+import be.pxl.services.dto.PostCursor;
 import be.pxl.services.dto.PostDTO;
-import be.pxl.services.dto.PostReviewRequestedEvent;
+import be.pxl.services.dto.PostJson;
+import be.pxl.services.dto.PostPage;
+import be.pxl.services.dto.PostSummary;
 import be.pxl.services.entity.Post;
 import be.pxl.services.entity.PostStatus;
+import be.pxl.services.entity.ReviewSequence;
+import be.pxl.services.events.EventCodec;
+import be.pxl.services.events.PostReviewRequestedEvent;
+import be.pxl.services.events.PostReviewResultEvent;
+import be.pxl.services.events.ReviewDecision;
+import be.pxl.services.events.outbox.OutboxService;
 import be.pxl.services.repository.PostRepository;
+import be.pxl.services.repository.PostSearchFilter;
+import be.pxl.services.repository.ReviewSequenceRepository;
+import be.pxl.services.search.PostSearchIndex;
 import be.pxl.services.service.PostService;
+import be.pxl.services.service.ProcessedEventService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -31,19 +55,38 @@ class PostServiceTest {
     private PostRepository postRepository;
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private OutboxService outboxService;
+
+    @Mock
+    private ProcessedEventService processedEventService;
+
+    @Mock
+    private ReviewSequenceRepository reviewSequenceRepository;
+
+    private PostSearchIndex searchIndex;
+
+    private PublishedFeedCache feedCache;
 
     private PostService postService;
 
     @BeforeEach
     void setUp() {
-        postService = new PostService(postRepository, rabbitTemplate);
+        searchIndex = new PostSearchIndex(postRepository);
+        feedCache = new PublishedFeedCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        PostJsonCache postJsonCache = new PostJsonCache(1024 * 1024,
+                new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+        postService = new PostService(postRepository, outboxService, searchIndex, feedCache, postJsonCache,
+                processedEventService, reviewSequenceRepository);
 
         // fields injected with \@Value in production
         ReflectionTestUtils.setField(postService,
                 "exchangeName", "post.review.exchange");
         ReflectionTestUtils.setField(postService,
                 "reviewRequestRoutingKey", "post.review.request");
+        ReflectionTestUtils.setField(postService,
+                "reviewRequestCodec", EventCodec.CBOR);
+        ReflectionTestUtils.setField(postService,
+                "reviewRequestInlineContentMaxBytes", 8192);
     }
 
     @Test
@@ -91,6 +134,47 @@ class PostServiceTest {
                 .hasMessageContaining("Post not found");
     }
 
+    @Test
+    void getPostVersion_notFound_isAnswered404() {
+        when(postRepository.findVersionById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> postService.getPostVersion(99L))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(ex -> ((ResponseStatusException) ex).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void getPostJson_sameVersion_servedWithoutReloading() {
+        Post post = new Post();
+        post.setId(42L);
+        post.setTitle("Title");
+        post.setVersion(3L);
+        when(postRepository.findById(42L)).thenReturn(Optional.of(post));
+
+        PostJson first = postService.getPostJson(42L, 3L);
+        PostJson second = postService.getPostJson(42L, 3L);
+
+        assertThat(first.etag()).isEqualTo("\"42-3\"");
+        assertThat(second.body()).isSameAs(first.body());
+        verify(postRepository, times(1)).findById(42L);
+    }
+
+    @Test
+    void getPostJson_newerVersion_isSerializedAgain() {
+        Post post = new Post();
+        post.setId(42L);
+        post.setVersion(3L);
+        when(postRepository.findById(42L)).thenReturn(Optional.of(post));
+        postService.getPostJson(42L, 3L);
+
+        post.setVersion(4L);
+        PostJson updated = postService.getPostJson(42L, 4L);
+
+        assertThat(updated.version()).isEqualTo(4L);
+        verify(postRepository, times(2)).findById(42L);
+    }
+
     @Test
     void updateStatus_changesStatusAndSaves() {
         Post post = new Post();
@@ -108,7 +192,7 @@ class PostServiceTest {
     }
 
     @Test
-    void submitForReview_fromDraft_setsRequestedAndSendsEvent() {
+    void submitForReview_fromDraft_setsRequestedAndQueuesEvent() {
         Post post = new Post();
         post.setId(7L);
         post.setAuthor("gabriel");
@@ -127,15 +211,187 @@ class PostServiceTest {
         ArgumentCaptor<PostReviewRequestedEvent> eventCaptor =
                 ArgumentCaptor.forClass(PostReviewRequestedEvent.class);
 
-        verify(rabbitTemplate).convertAndSend(
+        verify(outboxService).enqueue(
                 eq("post.review.exchange"),
                 eq("post.review.request"),
-                eventCaptor.capture()
+                eventCaptor.capture(),
+                eq(EventCodec.CBOR)
         );
 
         PostReviewRequestedEvent event = eventCaptor.getValue();
-        assertThat(event.getPostId()).isEqualTo(7L);
-        assertThat(event.getAuthor()).isEqualTo("gabriel");
+        assertThat(event.postId()).isEqualTo(7L);
+        assertThat(event.author()).isEqualTo("gabriel");
+        assertThat(event.content()).isEqualTo("Content");
+        assertThat(event.contentSize()).isEqualTo(7);
+    }
+
+    @Test
+    void submitForReview_largeContent_queuesClaimCheckWithoutContent() {
+        Post post = new Post();
+        post.setId(7L);
+        post.setAuthor("gabriel");
+        post.setTitle("Title");
+        post.setContent("x".repeat(10_000));
+        post.setStatus(PostStatus.DRAFT);
+
+        when(postRepository.findById(7L)).thenReturn(Optional.of(post));
+        when(postRepository.save(any(Post.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        postService.submitForReview(7L);
+
+        ArgumentCaptor<PostReviewRequestedEvent> eventCaptor =
+                ArgumentCaptor.forClass(PostReviewRequestedEvent.class);
+        verify(outboxService).enqueue(anyString(), anyString(), eventCaptor.capture(), any());
+
+        PostReviewRequestedEvent event = eventCaptor.getValue();
+        assertThat(event.content()).isNull();
+        assertThat(event.contentSize()).isEqualTo(10_000);
+        assertThat(event.contentHash()).isEqualTo(PostReviewRequestedEvent.contentHash(post.getContent()));
+    }
+
+    @Test
+    void applyReviewResults_loadsAndSavesWholeBatchOnce() {
+        Post p1 = new Post();
+        p1.setId(1L);
+        p1.setStatus(PostStatus.REQUESTED);
+        Post p2 = new Post();
+        p2.setId(2L);
+        p2.setStatus(PostStatus.REQUESTED);
+        when(postRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(p1, p2));
+        when(postRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Post> updated = postService.applyReviewResults(List.of(
+                new PostReviewResultEvent("e1", 1L, ReviewDecision.APPROVED, "rita", null, null),
+                new PostReviewResultEvent("e2", 2L, ReviewDecision.REJECTED, "rita", "too short", null)));
+
+        assertThat(updated).containsExactly(p1, p2);
+        assertThat(p1.getStatus()).isEqualTo(PostStatus.PUBLISHED);
+        assertThat(p2.getStatus()).isEqualTo(PostStatus.REJECTED);
+        assertThat(p2.getLastReviewComment()).isEqualTo("too short");
+        assertThat(p2.getLastReviewReviewer()).isEqualTo("rita");
+        verify(postRepository, times(1)).findAllById(any());
+        verify(postRepository, never()).findById(any());
+    }
+
+    @Test
+    void applyReviewResults_numbersPostsFromLockedSequence() {
+        Post p1 = new Post();
+        p1.setId(1L);
+        p1.setStatus(PostStatus.REQUESTED);
+        Post p2 = new Post();
+        p2.setId(2L);
+        p2.setStatus(PostStatus.REQUESTED);
+        ReviewSequence sequence = new ReviewSequence(ReviewSequence.ID, 41L);
+        when(reviewSequenceRepository.findByIdForUpdate(ReviewSequence.ID)).thenReturn(Optional.of(sequence));
+        when(postRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(p1, p2));
+        when(postRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        postService.applyReviewResults(List.of(
+                new PostReviewResultEvent("e1", 1L, ReviewDecision.APPROVED, "rita", null, null),
+                new PostReviewResultEvent("e2", 2L, ReviewDecision.APPROVED, "rita", null, null)));
+
+        assertThat(p1.getReviewSequence()).isEqualTo(42L);
+        assertThat(p2.getReviewSequence()).isEqualTo(43L);
+        assertThat(sequence.getLastValue()).isEqualTo(43L);
+        verify(reviewSequenceRepository).save(sequence);
+    }
+
+    @Test
+    void applyReviewResults_usesReviewTimeFromEvent() {
+        Post p1 = new Post();
+        p1.setId(1L);
+        p1.setStatus(PostStatus.REQUESTED);
+        when(postRepository.findAllById(Set.of(1L))).thenReturn(List.of(p1));
+        when(postRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        Instant reviewedAt = Instant.parse("2025-03-01T10:15:30Z");
+
+        postService.applyReviewResults(List.of(
+                new PostReviewResultEvent("e1", 1L, ReviewDecision.APPROVED, "rita", null, reviewedAt)));
+
+        assertThat(p1.getLastReviewedAt()).isEqualTo(LocalDateTime.ofInstant(reviewedAt, ZoneId.systemDefault()));
+    }
+
+    @Test
+    void applyReviewResults_unknownPost_isSkipped() {
+        Post p1 = new Post();
+        p1.setId(1L);
+        p1.setStatus(PostStatus.REQUESTED);
+        when(postRepository.findAllById(Set.of(1L, 99L))).thenReturn(List.of(p1));
+        when(postRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Post> updated = postService.applyReviewResults(List.of(
+                new PostReviewResultEvent("e99", 99L, ReviewDecision.APPROVED, "rita", null, null),
+                new PostReviewResultEvent("e1", 1L, ReviewDecision.APPROVED, "rita", null, null)));
+
+        assertThat(updated).containsExactly(p1);
+        assertThat(p1.getStatus()).isEqualTo(PostStatus.PUBLISHED);
+    }
+
+    @Test
+    void applyReviewResults_postNoLongerRequested_keepsItsStatus() {
+        Post p1 = new Post();
+        p1.setId(1L);
+        p1.setStatus(PostStatus.PUBLISHED);
+        p1.setLastReviewDecision(ReviewDecision.APPROVED);
+        p1.setLastReviewedAt(LocalDateTime.now());
+        when(postRepository.findAllById(Set.of(1L))).thenReturn(List.of(p1));
+
+        List<Post> updated = postService.applyReviewResults(List.of(
+                new PostReviewResultEvent("e1", 1L, ReviewDecision.REJECTED, "rita", "late", null)));
+
+        assertThat(updated).isEmpty();
+        assertThat(p1.getStatus()).isEqualTo(PostStatus.PUBLISHED);
+        assertThat(p1.getLastReviewDecision()).isEqualTo(ReviewDecision.APPROVED);
+        verify(processedEventService).markProcessed(List.of("e1"));
+    }
+
+    @Test
+    void applyReviewResults_statusAlreadySetByReviewer_recordsReviewDetails() {
+        Post p1 = new Post();
+        p1.setId(1L);
+        p1.setStatus(PostStatus.REJECTED);
+        when(postRepository.findAllById(Set.of(1L))).thenReturn(List.of(p1));
+        when(postRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Post> updated = postService.applyReviewResults(List.of(
+                new PostReviewResultEvent("e1", 1L, ReviewDecision.REJECTED, "rita", "too short", Instant.now())));
+
+        assertThat(updated).containsExactly(p1);
+        assertThat(p1.getLastReviewComment()).isEqualTo("too short");
+        assertThat(p1.getLastReviewReviewer()).isEqualTo("rita");
+    }
+
+    @Test
+    void applyReviewResults_redeliveredEvents_areDroppedBeforeLoadingPosts() {
+        when(processedEventService.findProcessed(Set.of("e1", "e2"))).thenReturn(Set.of("e1"));
+        Post p2 = new Post();
+        p2.setId(2L);
+        p2.setStatus(PostStatus.REQUESTED);
+        when(postRepository.findAllById(Set.of(2L))).thenReturn(List.of(p2));
+        when(postRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PostReviewResultEvent second = new PostReviewResultEvent("e2", 2L, ReviewDecision.APPROVED, "rita",
+                null, null);
+        List<Post> updated = postService.applyReviewResults(List.of(
+                new PostReviewResultEvent("e1", 1L, ReviewDecision.APPROVED, "rita", null, null),
+                second,
+                second));
+
+        assertThat(updated).containsExactly(p2);
+        verify(processedEventService).markProcessed(List.of("e2"));
+    }
+
+    @Test
+    void applyReviewResults_allDuplicates_touchesNoPosts() {
+        when(processedEventService.findProcessed(Set.of("e1"))).thenReturn(Set.of("e1"));
+
+        List<Post> updated = postService.applyReviewResults(List.of(
+                new PostReviewResultEvent("e1", 1L, ReviewDecision.APPROVED, "rita", null, null)));
+
+        assertThat(updated).isEmpty();
+        verify(postRepository, never()).findAllById(any());
+        verify(postRepository, never()).saveAll(any());
     }
 
     @Test
@@ -153,24 +409,62 @@ class PostServiceTest {
 
     @Test
     void getAllPosts_returnsAll() {
-        when(postRepository.findAll()).thenReturn(List.of(new Post(), new Post()));
+        when(postRepository.findSummariesBy()).thenReturn(List.of(
+                new PostSummary(1L, "a", "gabriel", PostStatus.DRAFT, LocalDateTime.now()),
+                new PostSummary(2L, "b", "gabriel", PostStatus.PUBLISHED, LocalDateTime.now())));
 
-        List<Post> result = postService.getAllPosts();
+        List<PostSummary> result = postService.getAllPosts();
 
         assertThat(result).hasSize(2);
     }
 
     @Test
     void getAllPublishedPosts_usesRepository() {
-        Post p1 = new Post();
-        p1.setStatus(PostStatus.PUBLISHED);
-        when(postRepository.findByStatus(PostStatus.PUBLISHED))
+        PostSummary p1 = new PostSummary(1L, "t", "gabriel", PostStatus.PUBLISHED, LocalDateTime.now());
+        when(postRepository.findSummariesByStatus(PostStatus.PUBLISHED))
                 .thenReturn(List.of(p1));
 
-        List<Post> result = postService.getAllPublishedPosts();
+        List<PostSummary> result = postService.getAllPublishedPosts();
 
         assertThat(result).hasSize(1);
-        assertThat(result.get(0).getStatus()).isEqualTo(PostStatus.PUBLISHED);
+        assertThat(result.get(0).status()).isEqualTo(PostStatus.PUBLISHED);
+        verify(postRepository, never()).findByStatus(any());
+    }
+
+    @Test
+    void getAllPublishedPosts_servedFromCacheUntilPublishedSetChanges() {
+        Post post = new Post();
+        post.setId(5L);
+        post.setStatus(PostStatus.REQUESTED);
+        when(postRepository.findSummariesByStatus(PostStatus.PUBLISHED)).thenReturn(List.of());
+        when(postRepository.findById(5L)).thenReturn(Optional.of(post));
+        when(postRepository.save(any(Post.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        postService.getAllPublishedPosts();
+        postService.getAllPublishedPosts();
+        verify(postRepository, times(1)).findSummariesByStatus(PostStatus.PUBLISHED);
+
+        postService.updateStatus(5L, PostStatus.PUBLISHED);
+        postService.getAllPublishedPosts();
+        verify(postRepository, times(2)).findSummariesByStatus(PostStatus.PUBLISHED);
+    }
+
+    @Test
+    void updateStatus_notTouchingPublished_keepsFeedCache() {
+        Post post = new Post();
+        post.setId(6L);
+        post.setStatus(PostStatus.DRAFT);
+        when(postRepository.findSummariesByStatus(PostStatus.PUBLISHED)).thenReturn(List.of());
+        when(postRepository.findById(6L)).thenReturn(Optional.of(post));
+        when(postRepository.save(any(Post.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        postService.getAllPublishedPosts();
+        postService.updateStatus(6L, PostStatus.REQUESTED);
+        postService.getAllPublishedPosts();
+
+        verify(postRepository, times(1)).findSummariesByStatus(PostStatus.PUBLISHED);
     }
 
     @Test
@@ -178,6 +472,7 @@ class PostServiceTest {
         LocalDateTime now = LocalDateTime.now();
 
         Post p1 = new Post();
+        p1.setId(1L);
         p1.setTitle("Spring Boot Tips");
         p1.setContent("Content 1");
         p1.setAuthor("gabriel");
@@ -185,19 +480,145 @@ class PostServiceTest {
         p1.setStatus(PostStatus.PUBLISHED);
 
         Post p2 = new Post();
+        p2.setId(2L);
         p2.setTitle("Other");
         p2.setContent("Different");
         p2.setAuthor("john");
         p2.setCreatedAt(now.minusDays(10));
         p2.setStatus(PostStatus.PUBLISHED);
 
-        when(postRepository.findByStatus(PostStatus.PUBLISHED))
-                .thenReturn(List.of(p1, p2));
+        searchIndex.index(p1);
+        searchIndex.index(p2);
+
+        LocalDate from = LocalDate.now().minusDays(2);
+        LocalDate to = LocalDate.now();
+        PostSummary summary = new PostSummary(1L, p1.getTitle(), p1.getAuthor(), p1.getStatus(), p1.getCreatedAt());
+        when(postRepository.search(any(PostSearchFilter.class)))
+                .thenReturn(List.of(summary));
+
+        List<PostSummary> result = postService.searchPosts("Spring", "gab", from, to);
+
+        assertThat(result).containsExactly(summary);
+
+        ArgumentCaptor<PostSearchFilter> captor = ArgumentCaptor.forClass(PostSearchFilter.class);
+        verify(postRepository).search(captor.capture());
+        PostSearchFilter filter = captor.getValue();
+        assertThat(filter.status()).isEqualTo(PostStatus.PUBLISHED);
+        assertThat(filter.ids()).containsExactly(1L);
+        assertThat(filter.authorPrefix()).isEqualTo("gab");
+        assertThat(filter.createdFrom()).isEqualTo(from.atStartOfDay());
+        assertThat(filter.createdBefore()).isEqualTo(to.plusDays(1).atStartOfDay());
+        verify(postRepository, never()).findByStatus(any());
+    }
+
+    @Test
+    void searchPosts_withoutText_pushesOnlyDatabaseFilters() {
+        when(postRepository.search(any(PostSearchFilter.class))).thenReturn(List.of());
+
+        postService.searchPosts(null, "gab", null, null);
+
+        ArgumentCaptor<PostSearchFilter> captor = ArgumentCaptor.forClass(PostSearchFilter.class);
+        verify(postRepository).search(captor.capture());
+        assertThat(captor.getValue().ids()).isNull();
+        assertThat(captor.getValue().createdFrom()).isNull();
+        assertThat(captor.getValue().createdBefore()).isNull();
+    }
+
+    @Test
+    void searchPosts_noMatchingTerms_skipsRepository() {
+        Post p1 = new Post();
+        p1.setId(1L);
+        p1.setTitle("Spring Boot Tips");
+        p1.setContent("Content 1");
+        p1.setAuthor("gabriel");
+        p1.setCreatedAt(LocalDateTime.now());
+        p1.setStatus(PostStatus.PUBLISHED);
+        searchIndex.index(p1);
+
+        List<PostSummary> result = postService.searchPosts("kubernetes", null, null, null);
+
+        assertThat(result).isEmpty();
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void searchPosts_textWithoutTokens_matchesNothing() {
+        Post p1 = new Post();
+        p1.setId(1L);
+        p1.setTitle("Spring Boot Tips");
+        p1.setStatus(PostStatus.PUBLISHED);
+        searchIndex.index(p1);
+
+        assertThat(postService.searchPosts("!!!", null, null, null)).isEmpty();
+        assertThat(postService.searchPosts("-", null, null, null)).isEmpty();
+        assertThat(searchIndex.matchText("  ")).isNull();
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void deletePost_removesPostFromSearchIndex() {
+        Post p1 = new Post();
+        p1.setId(3L);
+        p1.setTitle("Spring");
+        p1.setAuthor("gabriel");
+        p1.setStatus(PostStatus.PUBLISHED);
+        searchIndex.index(p1);
+        when(postRepository.findById(3L)).thenReturn(Optional.of(p1));
+
+        postService.deletePost(3L);
+
+        verify(postRepository).delete(p1);
+        assertThat(searchIndex.matchText("spring")).isEmpty();
+    }
+
+    @Test
+    void updateStatus_awayFromPublished_removesPostFromSearchIndex() {
+        Post post = new Post();
+        post.setId(4L);
+        post.setTitle("Spring");
+        post.setAuthor("gabriel");
+        post.setStatus(PostStatus.PUBLISHED);
+        searchIndex.index(post);
+
+        when(postRepository.findById(4L)).thenReturn(Optional.of(post));
+        when(postRepository.save(any(Post.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        postService.updateStatus(4L, PostStatus.REJECTED);
+
+        assertThat(searchIndex.matchText("spring")).isEmpty();
+    }
+
+    @Test
+    void searchIndex_matchesWordPrefixesNotSubstrings() {
+        Post post = new Post();
+        post.setId(5L);
+        post.setTitle("Hello world");
+        post.setStatus(PostStatus.PUBLISHED);
+        searchIndex.index(post);
 
-        List<Post> result = postService.searchPosts(
-                "Spring", "gab", LocalDate.now().minusDays(2), LocalDate.now());
+        assertThat(searchIndex.matchText("hel")).containsExactly(5L);
+        assertThat(searchIndex.matchText("ell")).isEmpty();
+    }
 
-        assertThat(result).containsExactly(p1);
+    @Test
+    void searchIndex_rebuildReplacesIndexWithPublishedPosts() {
+        Post stale = new Post();
+        stale.setId(6L);
+        stale.setTitle("Stale");
+        stale.setStatus(PostStatus.PUBLISHED);
+        searchIndex.index(stale);
+        Post fresh = new Post();
+        fresh.setId(7L);
+        fresh.setTitle("Fresh");
+        fresh.setStatus(PostStatus.PUBLISHED);
+        when(postRepository.findByStatus(PostStatus.PUBLISHED)).thenReturn(List.of(fresh));
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.matchText("stale")).isEmpty();
+        assertThat(searchIndex.matchText("fresh")).containsExactly(7L);
+        assertThat(searchIndex.size()).isEqualTo(1);
     }
 
     @Test
@@ -217,4 +638,82 @@ class PostServiceTest {
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getId()).isEqualTo(1L);
     }
+
+    @Test
+    void getPostsByIds_singleQuery_keepsRequestedOrderAndSkipsUnknown() {
+        Post p1 = new Post();
+        p1.setId(1L);
+        Post p3 = new Post();
+        p3.setId(3L);
+        when(postRepository.findAllById(Set.of(3L, 2L, 1L))).thenReturn(List.of(p1, p3));
+
+        List<Post> result = postService.getPostsByIds(List.of(3L, 2L, 1L, 3L));
+
+        assertThat(result).extracting(Post::getId).containsExactly(3L, 1L);
+        verify(postRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void getPostsByIds_tooManyIds_throws() {
+        List<Long> ids = LongStream.rangeClosed(1, PostService.MAX_BATCH_SIZE + 1).boxed().toList();
+
+        assertThatThrownBy(() -> postService.getPostsByIds(ids))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void getReviewNotifications_withSince_onlyQueriesNewerDecisions() {
+        LocalDateTime since = LocalDateTime.now().minusMinutes(5);
+        Post p1 = new Post();
+        p1.setId(2L);
+        p1.setAuthor("gabriel");
+        p1.setLastReviewDecision(ReviewDecision.APPROVED);
+        p1.setLastReviewedAt(LocalDateTime.now());
+
+        when(postRepository.findByAuthorAndLastReviewedAtAfterOrderByLastReviewedAtDesc("gabriel", since))
+                .thenReturn(List.of(p1));
+
+        List<PostDTO> result = postService.getReviewNotifications("gabriel", since);
+
+        assertThat(result).extracting(PostDTO::getId).containsExactly(2L);
+        verify(postRepository, never()).findByAuthorAndLastReviewDecisionIsNotNullOrderByLastReviewedAtDesc(any());
+    }
+
+    @Test
+    void getPostsPage_moreRowsThanLimit_returnsCursorOfLastItem() {
+        LocalDateTime now = LocalDateTime.now();
+        PostSummary p1 = new PostSummary(3L, "c", "gabriel", PostStatus.PUBLISHED, now);
+        PostSummary p2 = new PostSummary(2L, "b", "gabriel", PostStatus.PUBLISHED, now.minusHours(1));
+        PostSummary p3 = new PostSummary(1L, "a", "gabriel", PostStatus.PUBLISHED, now.minusHours(2));
+
+        when(postRepository.findSummariesByStatusOrderByCreatedAtDescIdDesc(PostStatus.PUBLISHED, Limit.of(3)))
+                .thenReturn(List.of(p1, p2, p3));
+
+        PostPage<PostSummary> page = postService.getPostsPage(PostStatus.PUBLISHED, null, 2);
+
+        assertThat(page.items()).containsExactly(p1, p2);
+        assertThat(PostCursor.decode(page.nextCursor())).isEqualTo(new PostCursor(p2.createdAt(), 2L));
+    }
+
+    @Test
+    void getPostsPage_withCursor_seeksPastPosition() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 12, 0);
+        String cursor = new PostCursor(createdAt, 10L).encode();
+        PostSummary older = new PostSummary(9L, "t", "gabriel", PostStatus.DRAFT, createdAt.minusMinutes(5));
+
+        when(postRepository.findSummaryPageAfter(createdAt, 10L, Limit.of(21)))
+                .thenReturn(List.of(older));
+
+        PostPage<PostSummary> page = postService.getPostsPage(null, cursor, null);
+
+        assertThat(page.items()).containsExactly(older);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void getPostsPage_invalidCursor_throwsIllegalArgument() {
+        assertThatThrownBy(() -> postService.getPostsPage(null, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 }
@@ -0,0 +1,95 @@
+package be.pxl.services;
+
+import be.pxl.services.controller.PostController;
+import be.pxl.services.dto.PostDTO;
+import be.pxl.services.entity.Post;
+import be.pxl.services.notification.ReviewNotificationBroadcaster;
+import be.pxl.services.service.PostExportService;
+import be.pxl.services.service.PostService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewNotificationBroadcasterTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+    @Mock
+    private PostService postService;
+
+    @Mock
+    private PostExportService postExportService;
+
+    private ReviewNotificationBroadcaster broadcaster;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new ReviewNotificationBroadcaster(Duration.ofMinutes(1), new SimpleMeterRegistry());
+        mockMvc = MockMvcBuilders.standaloneSetup(new PostController(postService, postExportService, broadcaster))
+                .build();
+    }
+
+    private static PostDTO decision(long sequence) {
+        Post post = new Post();
+        post.setId(sequence);
+        post.setAuthor("gabriel");
+        post.setReviewSequence(sequence);
+        return new PostDTO(post);
+    }
+
+    private static List<Long> eventIds(MvcResult result) throws Exception {
+        Matcher matcher = EVENT_ID.matcher(result.getResponse().getContentAsString());
+        return matcher.results().map(match -> Long.valueOf(match.group(1))).toList();
+    }
+
+    @Test
+    void reconnect_decisionPublishedDuringReplay_isSentOnceInSequenceOrder() throws Exception {
+        when(postService.getReviewNotificationsAfter("gabriel", 17L)).thenAnswer(invocation -> {
+            // committed and published after the stream was registered, while the replay was loading
+            broadcaster.publish(decision(19));
+            return List.of(decision(19), decision(18));
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/posts/notifications/stream")
+                        .param("editor", "gabriel")
+                        .header("Last-Event-ID", "17"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        broadcaster.publish(decision(20));
+
+        assertThat(eventIds(result)).containsExactly(18L, 19L, 20L);
+    }
+
+    @Test
+    void reconnect_liveDecisionAlreadyReplayed_isNotRepeated() throws Exception {
+        when(postService.getReviewNotificationsAfter("gabriel", 17L)).thenReturn(List.of(decision(18)));
+
+        MvcResult result = mockMvc.perform(get("/api/posts/notifications/stream")
+                        .param("editor", "gabriel")
+                        .header("Last-Event-ID", "17"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        broadcaster.publish(decision(18));
+        broadcaster.publish(decision(19));
+
+        assertThat(eventIds(result)).containsExactly(18L, 19L);
+    }
+}
@@ -1,14 +1,26 @@
 package be.pxl.services.amqp;
 
+import be.pxl.services.events.EventMessaging;
+import be.pxl.services.events.ListenerAutoscaler;
+import be.pxl.services.events.RetryTopology;
+import be.pxl.services.messaging.ReviewRequestListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
-import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class RabbitConfig {
 
@@ -18,6 +30,9 @@ public class RabbitConfig {
     @Value("${app.rabbitmq.review-result-queue}")
     private String reviewResultQueueName;
 
+    @Value("${app.rabbitmq.compress-above-bytes:4096}")
+    private int compressAboveBytes;
+
     @Bean
     public Queue reviewRequestQueue() {
         return QueueBuilder.durable(reviewRequestQueueName).build();
@@ -28,16 +43,84 @@ public class RabbitConfig {
         return QueueBuilder.durable(reviewResultQueueName).build();
     }
 
+    /**
+     * Failed review requests wait in review-request-queue.retry.N queues with a growing TTL and end up in
+     * the .dlq queue once they fail fatally or max-attempts times.
+     */
+    @Bean
+    public RetryTopology reviewRequestRetryTopology(
+            @Value("${app.rabbitmq.retry.max-attempts:4}") int maxAttempts,
+            @Value("${app.rabbitmq.retry.initial-backoff:PT1S}") Duration initialBackoff,
+            @Value("${app.rabbitmq.retry.multiplier:4}") double multiplier) {
+        return new RetryTopology(reviewRequestQueueName, maxAttempts, initialBackoff, multiplier);
+    }
+
+    @Bean
+    public Declarables reviewRequestRetryQueues(RetryTopology reviewRequestRetryTopology) {
+        return reviewRequestRetryTopology.declarables();
+    }
+
+    /**
+     * Reads JSON and CBOR events alike; which codec a queue is written in is chosen per producer
+     * with app.rabbitmq.review-request-codec and app.rabbitmq.review-result-codec.
+     */
     @Bean
-    public Jackson2JsonMessageConverter jackson2JsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter eventMessageConverter() {
+        return EventMessaging.messageConverter();
     }
 
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
-                                         Jackson2JsonMessageConverter converter) {
+                                         MessageConverter converter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(converter);
+        template.setBeforePublishPostProcessors(
+                EventMessaging.schemaVersionHeader(),
+                EventMessaging.compressAbove(compressAboveBytes));
+        // unroutable messages come back as returns instead of being dropped silently
+        template.setMandatory(true);
         return template;
     }
+
+    /**
+     * Starts more review request consumers while the queue backs up and stops them again when it
+     * drains, see ListenerAutoscaler.
+     */
+    @Bean
+    public ListenerAutoscaler reviewRequestAutoscaler(
+            RabbitListenerEndpointRegistry registry,
+            AmqpAdmin amqpAdmin,
+            MeterRegistry meterRegistry,
+            @Value("${app.rabbitmq.autoscale.min-consumers:1}") int minConsumers,
+            @Value("${app.rabbitmq.autoscale.max-consumers:8}") int maxConsumers,
+            @Value("${app.rabbitmq.autoscale.min-prefetch:10}") int minPrefetch,
+            @Value("${app.rabbitmq.autoscale.max-prefetch:250}") int maxPrefetch,
+            @Value("${app.rabbitmq.autoscale.target-drain-time:PT10S}") Duration targetDrainTime,
+            @Value("${app.rabbitmq.autoscale.prefetch-window:PT1S}") Duration prefetchWindow,
+            @Value("${app.rabbitmq.autoscale.interval:PT5S}") Duration interval) {
+        return new ListenerAutoscaler(ReviewRequestListener.LISTENER_ID, reviewRequestQueueName, registry,
+                amqpAdmin, meterRegistry,
+                new ListenerAutoscaler.Limits(minConsumers, maxConsumers, minPrefetch, maxPrefetch,
+                        targetDrainTime, prefetchWindow, interval));
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            MessageConverter converter,
+            RabbitTemplate rabbitTemplate,
+            ListenerAutoscaler reviewRequestAutoscaler,
+            RetryTopology reviewRequestRetryTopology,
+            @Value("${app.rabbitmq.retry.confirm-timeout:PT5S}") Duration retryConfirmTimeout) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(converter);
+        factory.setAfterReceivePostProcessors(EventMessaging.decompressing());
+        reviewRequestAutoscaler.configure(factory);
+        // retry outermost: a failed delivery is timed like any other, then routed to a retry queue
+        factory.setAdviceChain(reviewRequestRetryTopology.retryAdvice(rabbitTemplate, retryConfirmTimeout),
+                reviewRequestAutoscaler.timingAdvice());
+        return factory;
+    }
 }
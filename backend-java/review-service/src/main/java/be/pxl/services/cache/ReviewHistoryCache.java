@@ -0,0 +1,75 @@
+package be.pxl.services.cache;
+
+import be.pxl.services.entity.Review;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Review history per post, newest first. A new review is added to the cached history of its post
+ * instead of evicting it, so a busy post is loaded from the database once and not after every review.
+ * The TTL only bounds staleness caused by reviews written on other instances.
+ * Hit and miss counts are exported as "cache.gets{cache=reviewHistory}".
+ */
+@Component
+public class ReviewHistoryCache {
+
+    private static final String CACHE_NAME = "reviewHistory";
+
+    private final Cache<Long, List<Review>> cache;
+
+    public ReviewHistoryCache(@Value("${app.cache.review-history.max-entries:1024}") long maxEntries,
+                              @Value("${app.cache.review-history.ttl:PT10M}") Duration ttl,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public List<Review> get(Long postId, Supplier<List<Review>> loader) {
+        return cache.get(postId, id -> List.copyOf(loader.get()));
+    }
+
+    /**
+     * Adds the review to its post's history once the surrounding transaction commits, or right away
+     * without one. Histories that are not cached stay uncached; the next read loads them whole.
+     */
+    public void append(Review review) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    prepend(review);
+                }
+            });
+        } else {
+            prepend(review);
+        }
+    }
+
+    private void prepend(Review review) {
+        // runs after any load of the same post that is still in flight, which may already include the review
+        cache.asMap().computeIfPresent(review.getPostId(), (postId, history) -> {
+            if (history.stream().anyMatch(r -> r.getId() != null && r.getId().equals(review.getId()))) {
+                return history;
+            }
+            List<Review> updated = new ArrayList<>(history.size() + 1);
+            updated.add(review);
+            updated.addAll(history);
+            return List.copyOf(updated);
+        });
+    }
+}
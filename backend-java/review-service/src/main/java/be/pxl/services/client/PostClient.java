@@ -8,7 +8,8 @@ import java.util.List;
 
 @FeignClient(
         name = "post-service",
-        url = "http://localhost:8081"
+        url = "http://localhost:8081",
+        fallbackFactory = PostClientFallbackFactory.class
 )
 public interface PostClient {
 
@@ -18,5 +19,13 @@ public interface PostClient {
 
     @GetMapping("/api/posts/requested")
     List<PostDTO> getRequestedPosts(@RequestHeader("X-User-Role") String role);
+
+    // full post including its content, for review requests that were sent as a claim-check
+    @GetMapping("/api/posts/internal/{id}")
+    PostDTO getPostByIdInternal(@PathVariable("id") Long id);
+
+    // one round trip for many posts, in the order of the ids; unknown ids are left out
+    @PostMapping("/api/posts/internal/batch")
+    List<PostDTO> getPostsByIdsInternal(@RequestBody List<Long> ids);
 }
 
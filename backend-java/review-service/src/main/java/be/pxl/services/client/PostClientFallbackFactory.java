@@ -0,0 +1,54 @@
+package be.pxl.services.client;
+
+import be.pxl.services.dto.PostDTO;
+import feign.FeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Runs when a PostClient call fails or its circuit breaker is open. Client errors such as a 404 are
+ * answered by post-service itself and are passed on unchanged; everything else becomes a
+ * PostServiceUnavailableException, so callers fail fast instead of waiting on a slow post-service.
+ */
+@Component
+public class PostClientFallbackFactory implements FallbackFactory<PostClient> {
+
+    private static final Logger log = LoggerFactory.getLogger(PostClientFallbackFactory.class);
+
+    @Override
+    public PostClient create(Throwable cause) {
+        return new PostClient() {
+            @Override
+            public void updatePostStatus(Long id, String status) {
+                throw failure(cause);
+            }
+
+            @Override
+            public List<PostDTO> getRequestedPosts(String role) {
+                throw failure(cause);
+            }
+
+            @Override
+            public PostDTO getPostByIdInternal(Long id) {
+                throw failure(cause);
+            }
+
+            @Override
+            public List<PostDTO> getPostsByIdsInternal(List<Long> ids) {
+                throw failure(cause);
+            }
+        };
+    }
+
+    private static RuntimeException failure(Throwable cause) {
+        if (cause instanceof FeignException.FeignClientException clientError) {
+            return clientError;
+        }
+        log.warn("post-service call failed: {}", cause.toString());
+        return new PostServiceUnavailableException(cause);
+    }
+}
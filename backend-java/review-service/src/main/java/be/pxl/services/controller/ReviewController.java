@@ -1,10 +1,16 @@
 package be.pxl.services.controller;
 
+import be.pxl.services.dto.BulkReviewItem;
+import be.pxl.services.dto.BulkReviewResult;
 import be.pxl.services.dto.PostDTO;
+import be.pxl.services.dto.ReviewLease;
 import be.pxl.services.entity.Review;
-import be.pxl.services.entity.ReviewDecision;
+import be.pxl.services.events.ReviewDecision;
+import be.pxl.services.service.ReviewLeaseService;
 import be.pxl.services.service.ReviewService;
 import be.pxl.services.client.PostClient;
+import be.pxl.services.client.PostServiceUnavailableException;
+import feign.FeignException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -23,10 +29,13 @@ public class ReviewController {
     private static final String ROLE_EDITOR = "EDITOR";
 
     private final ReviewService reviewService;
+    private final ReviewLeaseService reviewLeaseService;
     private final PostClient postClient;
 
-    public ReviewController(ReviewService reviewService, PostClient postClient) {
+    public ReviewController(ReviewService reviewService, ReviewLeaseService reviewLeaseService,
+                            PostClient postClient) {
         this.reviewService = reviewService;
+        this.reviewLeaseService = reviewLeaseService;
         this.postClient = postClient;
     }
 
@@ -38,6 +47,11 @@ public class ReviewController {
         return ROLE_EDITOR.equalsIgnoreCase(role);
     }
 
+    @ExceptionHandler(PostServiceUnavailableException.class)
+    public ResponseEntity<String> postServiceUnavailable(PostServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ex.getMessage());
+    }
+
     @PostMapping("/{postId}")
     public ResponseEntity<?> reviewPost(
             @PathVariable Long postId,
@@ -55,8 +69,44 @@ public class ReviewController {
             return ResponseEntity.badRequest().body("Comment is required when rejecting a post.");
         }
 
-        Review review = reviewService.reviewPost(postId, username, decision, comment);
-        return ResponseEntity.status(HttpStatus.CREATED).body(review);
+        try {
+            Review review = reviewService.reviewPost(postId, username, decision, comment);
+            return ResponseEntity.status(HttpStatus.CREATED).body(review);
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+        }
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<?> reviewPosts(
+            @RequestBody List<BulkReviewItem> items,
+            @RequestHeader("X-User-Role") String role,
+            @RequestHeader("X-User-Name") String username) {
+
+        if (!isReviewer(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        List<BulkReviewResult> results;
+        try {
+            results = reviewService.reviewPosts(username, items);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+
+        long created = results.stream().filter(r -> r.outcome() == BulkReviewResult.Outcome.CREATED).count();
+        long conflicts = results.stream().filter(r -> r.outcome() == BulkReviewResult.Outcome.CONFLICT).count();
+        HttpStatus status;
+        if (created == results.size()) {
+            status = HttpStatus.CREATED;
+        } else if (conflicts == results.size()) {
+            status = HttpStatus.CONFLICT;
+        } else if (created == 0 && conflicts == 0) {
+            status = HttpStatus.BAD_REQUEST;
+        } else {
+            status = HttpStatus.MULTI_STATUS;
+        }
+        return ResponseEntity.status(status).body(results);
     }
 
     @GetMapping("/post/{postId}")
@@ -81,7 +131,56 @@ public class ReviewController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        List<PostDTO> requested = reviewService.getRequestedPosts();
+        List<PostDTO> requested = reviewService.getRequestedPosts(reviewerName);
         return ResponseEntity.ok(requested);
     }
+
+    @PostMapping("/requests/claim")
+    public ResponseEntity<?> claimRequestedPosts(
+            @RequestParam(defaultValue = "1") int count,
+            @RequestHeader("X-User-Role") String role,
+            @RequestHeader("X-User-Name") String reviewerName) {
+
+        if (!isReviewer(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            List<ReviewLease> leases = reviewLeaseService.claim(reviewerName, count);
+            return ResponseEntity.ok(leases);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    @DeleteMapping("/requests/{postId}/lease")
+    public ResponseEntity<Void> releaseRequestedPost(
+            @PathVariable Long postId,
+            @RequestHeader("X-User-Role") String role,
+            @RequestHeader("X-User-Name") String reviewerName) {
+
+        if (!isReviewer(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return reviewLeaseService.release(reviewerName, postId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/requests/{postId}")
+    public ResponseEntity<PostDTO> getRequestedPost(
+            @PathVariable Long postId,
+            @RequestHeader("X-User-Role") String role) {
+
+        if (!isReviewer(role)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            return ResponseEntity.ok(reviewService.getRequestedPost(postId));
+        } catch (FeignException.NotFound ex) {
+            return ResponseEntity.notFound().build();
+        }
+    }
 }
@@ -1,10 +1,9 @@
 package be.pxl.services.dto;
 
-import be.pxl.services.entity.ReviewDecision;
+import be.pxl.services.events.ReviewDecision;
 
-public record PostReviewResultEvent(
+public record BulkReviewItem(
         Long postId,
         ReviewDecision decision,
-        String reviewer,
         String comment
 ) {}
@@ -0,0 +1,30 @@
+package be.pxl.services.dto;
+
+/**
+ * Outcome of one item of a bulk review, in the position of that item in the request.
+ */
+public record BulkReviewResult(
+        Long postId,
+        Outcome outcome,
+        Long reviewId,
+        String error
+) {
+
+    public enum Outcome {
+        CREATED,
+        INVALID,
+        CONFLICT
+    }
+
+    public static BulkReviewResult created(Long postId, Long reviewId) {
+        return new BulkReviewResult(postId, Outcome.CREATED, reviewId, null);
+    }
+
+    public static BulkReviewResult invalid(Long postId, String error) {
+        return new BulkReviewResult(postId, Outcome.INVALID, null, error);
+    }
+
+    public static BulkReviewResult conflict(Long postId, String error) {
+        return new BulkReviewResult(postId, Outcome.CONFLICT, null, error);
+    }
+}
@@ -1,16 +0,0 @@
-package be.pxl.services.dto;
-
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class PostReviewRequestedEvent {
-    private Long postId;
-    private String title;
-    private String content;
-    private String author;
-}
-
@@ -0,0 +1,10 @@
+package be.pxl.services.dto;
+
+import java.time.LocalDateTime;
+
+public record ReviewLease(
+        Long postId,
+        String title,
+        String author,
+        LocalDateTime leaseExpiresAt
+) {}
@@ -0,0 +1,51 @@
+package be.pxl.services.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A post waiting for review, kept from the review request events so the review queue can be listed
+ * without asking post-service. Content is null when the request was sent as a claim-check.
+ * A reviewer who claimed the post holds it until leaseExpiresAt; after that it is free again.
+ * Seeded rows were copied from post-service instead of a request event; their requestedAt is only the
+ * post's creation time, so they are left out of the time-to-review statistics.
+ */
+@Entity
+@Table(name = "pending_reviews",
+        indexes = @Index(name = "idx_pending_reviews_requested_at", columnList = "requestedAt"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingReview {
+
+    @Id
+    private Long postId;
+
+    private String title;
+    private String author;
+
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String content;
+
+    @Column(length = 64)
+    private String contentHash;
+
+    private Integer contentSize;
+
+    private LocalDateTime requestedAt;
+
+    private String leasedBy;
+
+    private LocalDateTime leaseExpiresAt;
+
+    private boolean seeded;
+
+    public boolean isLeasedToOtherThan(String reviewer, LocalDateTime now) {
+        return leasedBy != null && !leasedBy.equals(reviewer)
+                && leaseExpiresAt != null && leaseExpiresAt.isAfter(now);
+    }
+}
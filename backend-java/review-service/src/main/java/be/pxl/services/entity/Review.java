@@ -1,12 +1,15 @@
 package be.pxl.services.entity;
 
+import be.pxl.services.events.ReviewDecision;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_post_id_created_at", columnList = "postId, createdAt")
+})
 @Getter
 @Setter
 @Builder
@@ -0,0 +1,21 @@
+package be.pxl.services.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One row per reviewer that has ever claimed posts. ReviewLeaseService locks it for the length of a
+ * claim, so two claims by the same reviewer run one after the other and the second one sees the
+ * leases the first one took.
+ */
+@Entity
+@Table(name = "reviewer_locks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewerLock {
+
+    @Id
+    private String reviewer;
+}
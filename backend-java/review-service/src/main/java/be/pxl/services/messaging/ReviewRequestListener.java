@@ -2,10 +2,10 @@ package be.pxl.services.messaging;
 
 import be.pxl.services.client.PostClient;
 import be.pxl.services.dto.PostDTO;
-import be.pxl.services.dto.PostReviewRequestedEvent;
-import be.pxl.services.dto.PostReviewResultEvent;
 import be.pxl.services.entity.Review;
-import be.pxl.services.entity.ReviewDecision;
+import be.pxl.services.events.PostReviewRequestedEvent;
+import be.pxl.services.events.PostReviewResultEvent;
+import be.pxl.services.events.ReviewDecision;
 import be.pxl.services.service.ReviewService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,13 +17,24 @@ import org.springframework.stereotype.Component;
 @Component
 public class ReviewRequestListener {
 
+    public static final String LISTENER_ID = "reviewRequestListener";
+
     private static final Logger log = LoggerFactory.getLogger(ReviewRequestListener.class);
 
-    public ReviewRequestListener() {
+    private final ReviewService reviewService;
+
+    public ReviewRequestListener(ReviewService reviewService) {
+        this.reviewService = reviewService;
     }
 
-    @RabbitListener(queues = "${app.rabbitmq.review-request-queue}")
+    @RabbitListener(id = LISTENER_ID, queues = "${app.rabbitmq.review-request-queue}")
     public void handleReviewRequest(PostReviewRequestedEvent event) {
-        log.info("Received review request event for post {} (async-notificatie)", event.getPostId());
+        if (event.contentInline()) {
+            log.info("Received review request event for post {} (async-notificatie)", event.postId());
+        } else {
+            log.info("Received review request event for post {} without content ({} bytes, sha256 {}), "
+                    + "fetched when a reviewer opens it", event.postId(), event.contentSize(), event.contentHash());
+        }
+        reviewService.recordReviewRequest(event);
     }
 }
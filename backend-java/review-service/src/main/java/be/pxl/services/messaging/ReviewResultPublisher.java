@@ -1,18 +1,53 @@
 package be.pxl.services.messaging;
 
-import be.pxl.services.dto.PostReviewResultEvent;
+import be.pxl.services.events.EventCodec;
+import be.pxl.services.events.PostReviewResultEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes review results with asynchronous publisher confirms. Up to max-in-flight messages may
+ * be unconfirmed at once; publish() only blocks when that window is full. Nacked messages are
+ * re-sent with a linear backoff, unroutable (returned) messages are logged and not retried.
+ */
 @Component
 public class ReviewResultPublisher {
 
     private static final Logger log = LoggerFactory.getLogger(ReviewResultPublisher.class);
 
+    private static final String CONFIRM_TIMER = "review.results.publish.confirm";
+
+    // how long publish() waits for a free slot before failing the review request
+    private static final Duration WINDOW_TIMEOUT = Duration.ofSeconds(5);
+
     private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore window;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Counter abandoned;
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("review-result-retry").daemon().factory());
 
     @Value("${app.rabbitmq.exchange}")
     private String exchangeName;
@@ -20,13 +55,104 @@ public class ReviewResultPublisher {
     @Value("${app.rabbitmq.review-result-routing-key}")
     private String reviewResultRoutingKey;
 
-    public ReviewResultPublisher(RabbitTemplate rabbitTemplate) {
+    @Value("${app.rabbitmq.review-result-codec:JSON}")
+    private EventCodec reviewResultCodec;
+
+    public ReviewResultPublisher(RabbitTemplate rabbitTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.rabbitmq.publisher.max-in-flight:256}") int maxInFlight,
+                                 @Value("${app.rabbitmq.publisher.max-attempts:5}") int maxAttempts,
+                                 @Value("${app.rabbitmq.publisher.retry-backoff:PT0.5S}") Duration retryBackoff) {
         this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+        this.window = new Semaphore(maxInFlight);
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.abandoned = Counter.builder("review.results.publish.abandoned")
+                .description("Review results given up on after max-attempts nacks")
+                .register(meterRegistry);
+        Gauge.builder("review.results.publish.in-flight", window, w -> maxInFlight - w.availablePermits())
+                .description("Review results published but not yet confirmed by the broker")
+                .register(meterRegistry);
     }
 
     public void publish(PostReviewResultEvent event) {
-        rabbitTemplate.convertAndSend(exchangeName, reviewResultRoutingKey, event);
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(reviewResultCodec.contentType());
+        Message message = rabbitTemplate.getMessageConverter().toMessage(event, properties);
+        send(event, message, 1);
         log.info("Sent review result event for post {}: decision={}, reviewer={}",
                 event.postId(), event.decision(), event.reviewer());
     }
+
+    private void send(PostReviewResultEvent event, Message message, int attempt) {
+        try {
+            if (!window.tryAcquire(WINDOW_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new AmqpTimeoutException("Too many unconfirmed review results in flight");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AmqpTimeoutException("Interrupted while waiting for the publisher window", ex);
+        }
+
+        CorrelationData correlationData = new CorrelationData(event.eventId() + "#" + attempt);
+        long publishedAt = System.nanoTime();
+        try {
+            // a copy per attempt, the template's post-processors (compression) modify what they are given
+            rabbitTemplate.send(exchangeName, reviewResultRoutingKey,
+                    MessageBuilder.fromClonedMessage(message).build(), correlationData);
+        } catch (AmqpException ex) {
+            window.release();
+            throw ex;
+        }
+
+        correlationData.getFuture().whenComplete((confirm, ex) -> {
+            window.release();
+            String result;
+            if (ex != null || !confirm.isAck()) {
+                result = "nack";
+            } else if (correlationData.getReturned() != null) {
+                result = "returned";
+            } else {
+                result = "ack";
+            }
+            Timer.builder(CONFIRM_TIMER)
+                    .description("Time from publishing a review result to its broker confirm")
+                    .tag("result", result)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - publishedAt, TimeUnit.NANOSECONDS);
+
+            if ("nack".equals(result)) {
+                log.warn("Review result {} for post {} was nacked (attempt {}): {}", event.eventId(), event.postId(),
+                        attempt, ex != null ? ex.getMessage() : confirm.getReason());
+                retry(event, message, attempt);
+            } else if ("returned".equals(result)) {
+                log.error("Review result {} for post {} was unroutable: {}", event.eventId(), event.postId(),
+                        correlationData.getReturned().getReplyText());
+            }
+        });
+    }
+
+    private void retry(PostReviewResultEvent event, Message message, int attempt) {
+        if (attempt >= maxAttempts) {
+            log.error("Giving up on review result {} for post {} after {} attempts",
+                    event.eventId(), event.postId(), attempt);
+            abandoned.increment();
+            return;
+        }
+        // never re-send from the confirm callback itself, that runs on the connection's thread
+        retryScheduler.schedule(() -> {
+            try {
+                send(event, message, attempt + 1);
+            } catch (AmqpException ex) {
+                log.warn("Re-sending review result {} failed: {}", event.eventId(), ex.getMessage());
+                retry(event, message, attempt + 1);
+            }
+        }, retryBackoff.toMillis() * attempt, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        retryScheduler.shutdown();
+    }
 }
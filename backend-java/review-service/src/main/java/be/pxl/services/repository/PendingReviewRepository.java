@@ -0,0 +1,41 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.entity.PendingReview;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface PendingReviewRepository extends JpaRepository<PendingReview, Long> {
+
+    /**
+     * The review queue as one reviewer sees it: free posts and the posts this reviewer holds a lease on.
+     */
+    @Query("select p from PendingReview p where p.leaseExpiresAt is null or p.leaseExpiresAt <= :now "
+            + "or p.leasedBy = :reviewer order by p.requestedAt asc")
+    List<PendingReview> findVisibleTo(@Param("reviewer") String reviewer, @Param("now") LocalDateTime now);
+
+    /**
+     * Oldest posts without a live lease, row-locked with SKIP LOCKED so reviewers claiming at the same
+     * time each get different posts instead of queueing behind one another.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<PendingReview> findByLeaseExpiresAtIsNullOrLeaseExpiresAtLessThanEqualOrderByRequestedAtAsc(
+            LocalDateTime now, Limit limit);
+
+    long countByLeasedByAndLeaseExpiresAtAfter(String reviewer, LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from PendingReview p where p.postId = :postId")
+    Optional<PendingReview> findByIdForUpdate(@Param("postId") Long postId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from PendingReview p where p.postId in :postIds")
+    List<PendingReview> findAllByIdForUpdate(@Param("postIds") List<Long> postIds);
+}
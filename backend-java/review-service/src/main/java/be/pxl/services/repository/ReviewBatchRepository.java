@@ -0,0 +1,13 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.entity.Review;
+
+import java.util.List;
+
+public interface ReviewBatchRepository {
+
+    /**
+     * Inserts the reviews with one JDBC batch and sets their generated ids.
+     */
+    List<Review> insertAll(List<Review> reviews);
+}
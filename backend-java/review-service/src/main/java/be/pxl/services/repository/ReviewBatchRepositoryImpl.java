@@ -0,0 +1,65 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.entity.Review;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hibernate cannot batch inserts into an IDENTITY column, it needs every generated id before the next row.
+ * A plain JDBC batch can: with rewriteBatchedStatements the driver sends one multi-row INSERT and still
+ * returns all generated keys, in row order.
+ */
+class ReviewBatchRepositoryImpl implements ReviewBatchRepository {
+
+    private static final String INSERT =
+            "insert into reviews (post_id, reviewer, decision, comment, created_at) values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ReviewBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Review> insertAll(List<Review> reviews) {
+        if (reviews.isEmpty()) {
+            return reviews;
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Review review = reviews.get(i);
+                        ps.setLong(1, review.getPostId());
+                        ps.setString(2, review.getReviewer());
+                        ps.setString(3, review.getDecision().name());
+                        ps.setString(4, review.getComment());
+                        ps.setTimestamp(5, Timestamp.valueOf(review.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return reviews.size();
+                    }
+                },
+                keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < reviews.size() && i < generated.size(); i++) {
+            Object id = generated.get(i).values().iterator().next();
+            reviews.get(i).setId(((Number) id).longValue());
+        }
+        return reviews;
+    }
+}
@@ -2,10 +2,19 @@ package be.pxl.services.repository;
 
 import be.pxl.services.entity.Review;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
-public interface ReviewRepository extends JpaRepository<Review, Long> {
+public interface ReviewRepository extends JpaRepository<Review, Long>, ReviewBatchRepository {
 
     List<Review> findByPostIdOrderByCreatedAtDesc(Long postId);
+
+    Optional<Review> findFirstByPostIdOrderByCreatedAtDesc(Long postId);
+
+    @Query("select distinct r.postId from Review r where r.postId in :postIds")
+    Set<Long> findReviewedPostIds(@Param("postIds") Set<Long> postIds);
 }
@@ -0,0 +1,26 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.entity.ReviewerLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ReviewerLockRepository extends JpaRepository<ReviewerLock, String> {
+
+    /**
+     * Creates the reviewer's row on first use; a concurrent insert of the same row waits for the other
+     * transaction instead of failing with a duplicate key.
+     */
+    @Modifying
+    @Query(value = "insert ignore into reviewer_locks (reviewer) values (:reviewer)", nativeQuery = true)
+    int insertIfAbsent(@Param("reviewer") String reviewer);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from ReviewerLock l where l.reviewer = :reviewer")
+    Optional<ReviewerLock> findByIdForUpdate(@Param("reviewer") String reviewer);
+}
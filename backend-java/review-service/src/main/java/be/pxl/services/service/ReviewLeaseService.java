@@ -0,0 +1,97 @@
+package be.pxl.services.service;
+
+import be.pxl.services.dto.ReviewLease;
+import be.pxl.services.entity.PendingReview;
+import be.pxl.services.repository.PendingReviewRepository;
+import be.pxl.services.repository.ReviewerLockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hands out pending reviews to reviewers. A claim leases the oldest free posts to one reviewer for
+ * lease-duration; nobody else can review them until the lease is released, the post is reviewed or
+ * the lease runs out, which needs no clean-up: an expired lease simply counts as free.
+ * Leases live in pending_reviews, so every instance sees the same assignments. Concurrent claims skip
+ * each other's locked rows rather than wait for them, and max-per-reviewer stops one reviewer from
+ * holding the queue while others have nothing to do. Claims by the same reviewer are serialized on
+ * the reviewer's ReviewerLock row, so they cannot both count the same held leases and together go
+ * over the cap.
+ */
+@Service
+public class ReviewLeaseService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewLeaseService.class);
+
+    private final PendingReviewRepository pendingReviewRepository;
+    private final ReviewerLockRepository reviewerLockRepository;
+    private final Duration leaseDuration;
+    private final int maxPerReviewer;
+
+    public ReviewLeaseService(PendingReviewRepository pendingReviewRepository,
+                              ReviewerLockRepository reviewerLockRepository,
+                              @Value("${app.review.lease.duration:PT15M}") Duration leaseDuration,
+                              @Value("${app.review.lease.max-per-reviewer:10}") int maxPerReviewer) {
+        this.pendingReviewRepository = pendingReviewRepository;
+        this.reviewerLockRepository = reviewerLockRepository;
+        this.leaseDuration = leaseDuration;
+        this.maxPerReviewer = maxPerReviewer;
+    }
+
+    /**
+     * Leases up to count posts to the reviewer, oldest request first. Fewer are returned when the queue
+     * runs out or the reviewer already holds max-per-reviewer leases.
+     * Read committed, so the count taken after the lock sees the leases of the claim that held it before.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<ReviewLease> claim(String reviewer, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be at least 1");
+        }
+        reviewerLockRepository.insertIfAbsent(reviewer);
+        reviewerLockRepository.findByIdForUpdate(reviewer);
+
+        LocalDateTime now = LocalDateTime.now();
+        long held = pendingReviewRepository.countByLeasedByAndLeaseExpiresAtAfter(reviewer, now);
+        int allowed = (int) Math.min(count, maxPerReviewer - held);
+        if (allowed <= 0) {
+            return List.of();
+        }
+
+        LocalDateTime expiresAt = now.plus(leaseDuration);
+        List<PendingReview> claimed = pendingReviewRepository
+                .findByLeaseExpiresAtIsNullOrLeaseExpiresAtLessThanEqualOrderByRequestedAtAsc(now, Limit.of(allowed));
+        claimed.forEach(pending -> {
+            pending.setLeasedBy(reviewer);
+            pending.setLeaseExpiresAt(expiresAt);
+        });
+        log.info("Leased {} posts to {} until {}", claimed.size(), reviewer, expiresAt);
+        return claimed.stream()
+                .map(pending -> new ReviewLease(pending.getPostId(), pending.getTitle(), pending.getAuthor(),
+                        pending.getLeaseExpiresAt()))
+                .toList();
+    }
+
+    /**
+     * Gives the post back to the queue. Returns false when the reviewer holds no live lease on it.
+     */
+    @Transactional
+    public boolean release(String reviewer, Long postId) {
+        PendingReview pending = pendingReviewRepository.findByIdForUpdate(postId).orElse(null);
+        if (pending == null || !reviewer.equals(pending.getLeasedBy())
+                || !pending.getLeaseExpiresAt().isAfter(LocalDateTime.now())) {
+            return false;
+        }
+        pending.setLeasedBy(null);
+        pending.setLeaseExpiresAt(null);
+        return true;
+    }
+}
@@ -1,39 +1,181 @@
 package be.pxl.services.service;
 
+import be.pxl.services.cache.ReviewHistoryCache;
 import be.pxl.services.client.PostClient;
+import be.pxl.services.client.PostServiceUnavailableException;
+import be.pxl.services.dto.BulkReviewItem;
+import be.pxl.services.dto.BulkReviewResult;
 import be.pxl.services.dto.PostDTO;
-import be.pxl.services.dto.PostReviewResultEvent;
+import be.pxl.services.entity.PendingReview;
 import be.pxl.services.entity.Review;
-import be.pxl.services.entity.ReviewDecision;
+import be.pxl.services.events.EventCodec;
+import be.pxl.services.events.PostReviewRequestedEvent;
+import be.pxl.services.events.PostReviewResultEvent;
+import be.pxl.services.events.ReviewDecision;
+import be.pxl.services.events.outbox.OutboxService;
 import be.pxl.services.messaging.ReviewResultPublisher;
+import be.pxl.services.repository.PendingReviewRepository;
 import be.pxl.services.repository.ReviewRepository;
+import be.pxl.services.stats.ReviewStatistics;
+import feign.FeignException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ReviewService {
 
     private static final Logger log = LoggerFactory.getLogger(ReviewService.class);
 
+    public static final int MAX_BULK_SIZE = 100;
+
     private final ReviewRepository reviewRepository;
     private final PostClient postClient;
     private final ReviewResultPublisher reviewResultPublisher;   // <-- nieuw
+    private final PendingReviewRepository pendingReviewRepository;
+    private final OutboxService outboxService;
+    private final ReviewHistoryCache historyCache;
+    private final ReviewStatistics statistics;
+    private final AtomicBoolean seeded = new AtomicBoolean();
+
+    @Value("${app.rabbitmq.exchange}")
+    private String exchangeName;
+
+    @Value("${app.rabbitmq.review-result-routing-key}")
+    private String reviewResultRoutingKey;
+
+    @Value("${app.rabbitmq.review-result-codec:JSON}")
+    private EventCodec reviewResultCodec;
+
+    // post-service then only learns the new status from the review result event
+    @Value("${app.review.async-status-update:false}")
+    private boolean asyncStatusUpdate;
 
     public ReviewService(ReviewRepository reviewRepository,
                          PostClient postClient,
-                         ReviewResultPublisher reviewResultPublisher) {
+                         ReviewResultPublisher reviewResultPublisher,
+                         PendingReviewRepository pendingReviewRepository,
+                         OutboxService outboxService,
+                         ReviewHistoryCache historyCache,
+                         ReviewStatistics statistics) {
         this.reviewRepository = reviewRepository;
         this.postClient = postClient;
         this.reviewResultPublisher = reviewResultPublisher;
+        this.pendingReviewRepository = pendingReviewRepository;
+        this.outboxService = outboxService;
+        this.historyCache = historyCache;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Adds the post to the local review queue, or refreshes it when the request is delivered again.
+     * A redelivery keeps the lease a reviewer may already hold on the post. The queue is ordered by
+     * the time the post was submitted, or by arrival for requests that do not carry it.
+     * Requests are delivered at least once, so one that is not newer than the last review of the
+     * post was already handled and is ignored rather than putting the post back in the queue.
+     */
+    public void recordReviewRequest(PostReviewRequestedEvent event) {
+        LocalDateTime requestedAt = event.requestedAt() == null ? null
+                : LocalDateTime.ofInstant(event.requestedAt(), ZoneId.systemDefault());
+        if (requestedAt != null) {
+            Review last = reviewRepository.findFirstByPostIdOrderByCreatedAtDesc(event.postId()).orElse(null);
+            if (last != null && !last.getCreatedAt().isBefore(requestedAt)) {
+                log.info("Ignoring review request for post {} from {}, already reviewed at {}",
+                        event.postId(), requestedAt, last.getCreatedAt());
+                return;
+            }
+        }
+
+        PendingReview existing = pendingReviewRepository.findById(event.postId()).orElse(null);
+        pendingReviewRepository.save(PendingReview.builder()
+                .postId(event.postId())
+                .title(event.title())
+                .author(event.author())
+                .content(event.content())
+                .contentHash(event.contentHash())
+                .contentSize(event.contentSize())
+                .requestedAt(requestedAt == null ? LocalDateTime.now() : requestedAt)
+                .leasedBy(existing == null ? null : existing.getLeasedBy())
+                .leaseExpiresAt(existing == null ? null : existing.getLeaseExpiresAt())
+                .build());
+        statistics.requestRecorded(existing == null);
+    }
+
+    /**
+     * Adds the posts post-service has in REQUESTED to the review queue, for posts that were requested
+     * before this service kept its own queue. Runs at startup and again every seed-retry-interval until
+     * it once succeeds, so a post-service outage at startup does not leave those posts unreviewable.
+     * Posts already queued or already reviewed here are left alone: their requests came as events,
+     * which also bring every later resubmission. The rows are marked as seeded.
+     */
+    @Scheduled(fixedDelayString = "${app.review.seed-retry-interval:PT1M}")
+    public void seedPendingReviews() {
+        if (seeded.get()) {
+            return;
+        }
+        try {
+            List<PostDTO> requested = postClient.getRequestedPosts("REVIEWER");
+            Set<Long> ids = requested.stream().map(PostDTO::id).collect(Collectors.toSet());
+            Set<Long> known = new HashSet<>();
+            if (!ids.isEmpty()) {
+                pendingReviewRepository.findAllById(ids).forEach(pending -> known.add(pending.getPostId()));
+                known.addAll(reviewRepository.findReviewedPostIds(ids));
+            }
+            List<PendingReview> pending = requested.stream()
+                    .filter(post -> !known.contains(post.id()))
+                    .map(post -> PendingReview.builder()
+                            .postId(post.id())
+                            .title(post.title())
+                            .author(post.author())
+                            .content(post.content())
+                            .requestedAt(post.createdAt())
+                            .seeded(true)
+                            .build())
+                    .toList();
+            pendingReviewRepository.saveAll(pending);
+            seeded.set(true);
+            log.info("Seeded the review queue with {} of {} requested posts", pending.size(), requested.size());
+        } catch (FeignException | PostServiceUnavailableException ex) {
+            log.warn("Could not seed the review queue from post-service, will retry: {}", ex.getMessage());
+        }
     }
 
+    /**
+     * Records the review and tells post-service about it. With async-status-update the result event
+     * is committed to the outbox together with the review, and post-service's ReviewResultListener is
+     * the only one to write the status; otherwise the status is set with a Feign call first and the
+     * event is published directly.
+     * The pending row is locked first, so two reviewers can never both review the same post; a post
+     * that is no longer pending, or that another reviewer holds a lease on, is refused with an
+     * IllegalStateException.
+     */
+    @Transactional
     public Review reviewPost(Long postId, String reviewer,
                              ReviewDecision decision, String comment) {
 
+        PendingReview pending = pendingReviewRepository.findByIdForUpdate(postId)
+                .orElseThrow(() -> new IllegalStateException("Post " + postId + " is not awaiting review"));
+        if (pending.isLeasedToOtherThan(reviewer, LocalDateTime.now())) {
+            throw new IllegalStateException("Post " + postId + " is being reviewed by " + pending.getLeasedBy());
+        }
+
         Review review = Review.builder()
                 .postId(postId)
                 .reviewer(reviewer)
@@ -43,6 +185,24 @@ public class ReviewService {
                 .build();
 
         Review saved = reviewRepository.save(review);
+        pendingReviewRepository.delete(pending);
+        historyCache.append(saved);
+        statistics.reviewRecorded(reviewer, decision, requestedAtForStatistics(pending), saved.getCreatedAt());
+
+        PostReviewResultEvent event = new PostReviewResultEvent(
+                UUID.randomUUID().toString(),
+                postId,
+                decision,
+                reviewer,
+                comment,
+                Instant.now()
+        );
+
+        if (asyncStatusUpdate) {
+            outboxService.enqueue(exchangeName, reviewResultRoutingKey, event, reviewResultCodec);
+            log.info("Post {} reviewed as {}, status update queued", postId, decision);
+            return saved;
+        }
 
         String newStatus = (decision == ReviewDecision.APPROVED)
                 ? "PUBLISHED"
@@ -50,22 +210,154 @@ public class ReviewService {
         postClient.updatePostStatus(postId, newStatus);
         log.info("Post {} reviewed as {}", postId, newStatus);
 
-        PostReviewResultEvent event = new PostReviewResultEvent(
-                postId,
-                decision,
-                reviewer,
-                comment
-        );
         reviewResultPublisher.publish(event);
 
         return saved;
     }
 
+    /**
+     * Reviews many posts at once. Every item is validated first; the valid ones are inserted with one
+     * JDBC batch, removed from the review queue with one delete and their result events committed to
+     * the outbox in the same transaction, so OutboxRelay publishes them as one pipelined batch.
+     * Bulk reviews always take that path, also without async-status-update: a Feign call per item
+     * would bring back the round trips this endpoint exists to avoid.
+     * Items for posts that are no longer pending or that another reviewer holds a lease on are
+     * reported as CONFLICT, checked under the same row locks as reviewPost.
+     * Returns one result per item, in request order.
+     */
+    @Transactional
+    public List<BulkReviewResult> reviewPosts(String reviewer, List<BulkReviewItem> items) {
+        if (items == null || items.isEmpty() || items.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("A bulk review needs between 1 and " + MAX_BULK_SIZE + " items");
+        }
+
+        BulkReviewResult[] results = new BulkReviewResult[items.size()];
+        List<Integer> validPositions = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkReviewItem item = items.get(i);
+            String error = validate(item, seen);
+            if (error != null) {
+                results[i] = BulkReviewResult.invalid(item == null ? null : item.postId(), error);
+            } else {
+                validPositions.add(i);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, PendingReview> pending = validPositions.isEmpty() ? Map.of()
+                : pendingReviewRepository.findAllByIdForUpdate(validPositions.stream()
+                        .map(i -> items.get(i).postId())
+                        .toList()).stream()
+                .collect(Collectors.toMap(PendingReview::getPostId, Function.identity()));
+        validPositions.removeIf(i -> {
+            Long postId = items.get(i).postId();
+            PendingReview row = pending.get(postId);
+            if (row == null) {
+                results[i] = BulkReviewResult.conflict(postId, "Post " + postId + " is not awaiting review");
+                return true;
+            }
+            if (row.isLeasedToOtherThan(reviewer, now)) {
+                results[i] = BulkReviewResult.conflict(postId,
+                        "Post " + postId + " is being reviewed by " + row.getLeasedBy());
+                return true;
+            }
+            return false;
+        });
+
+        List<Review> reviews = validPositions.stream()
+                .map(items::get)
+                .map(item -> Review.builder()
+                        .postId(item.postId())
+                        .reviewer(reviewer)
+                        .decision(item.decision())
+                        .comment(item.comment())
+                        .createdAt(now)
+                        .build())
+                .toList();
+        reviewRepository.insertAll(reviews);
+        reviews.forEach(historyCache::append);
+        reviews.forEach(review -> statistics.reviewRecorded(reviewer, review.getDecision(),
+                requestedAtForStatistics(pending.get(review.getPostId())), review.getCreatedAt()));
+        if (!reviews.isEmpty()) {
+            pendingReviewRepository.deleteAllByIdInBatch(reviews.stream().map(Review::getPostId).toList());
+        }
+
+        Instant reviewedAt = Instant.now();
+        for (int i = 0; i < reviews.size(); i++) {
+            Review review = reviews.get(i);
+            outboxService.enqueue(exchangeName, reviewResultRoutingKey, new PostReviewResultEvent(
+                    UUID.randomUUID().toString(),
+                    review.getPostId(),
+                    review.getDecision(),
+                    reviewer,
+                    review.getComment(),
+                    reviewedAt
+            ), reviewResultCodec);
+            results[validPositions.get(i)] = BulkReviewResult.created(review.getPostId(), review.getId());
+        }
+
+        log.info("Bulk review by {}: {} of {} posts reviewed", reviewer, reviews.size(), items.size());
+        return Arrays.asList(results);
+    }
+
+    private static LocalDateTime requestedAtForStatistics(PendingReview pending) {
+        return pending.isSeeded() ? null : pending.getRequestedAt();
+    }
+
+    private static String validate(BulkReviewItem item, Set<Long> seen) {
+        if (item == null || item.postId() == null) {
+            return "postId is required";
+        }
+        if (item.decision() == null) {
+            return "decision is required";
+        }
+        if (item.decision() == ReviewDecision.REJECTED && (item.comment() == null || item.comment().isBlank())) {
+            return "Comment is required when rejecting a post.";
+        }
+        if (!seen.add(item.postId())) {
+            return "post " + item.postId() + " appears more than once";
+        }
+        return null;
+    }
+
+    /**
+     * Served from ReviewHistoryCache; a miss is one range scan of idx_reviews_post_id_created_at.
+     */
     public List<Review> getReviewsForPost(Long postId) {
-        return reviewRepository.findByPostIdOrderByCreatedAtDesc(postId);
+        return historyCache.get(postId, () -> reviewRepository.findByPostIdOrderByCreatedAtDesc(postId));
+    }
+
+    /**
+     * The local review queue as the reviewer sees it, oldest request first: posts nobody holds a lease
+     * on plus the reviewer's own. Served without a call to post-service.
+     */
+    public List<PostDTO> getRequestedPosts(String reviewer) {
+        return pendingReviewRepository.findVisibleTo(reviewer, LocalDateTime.now()).stream()
+                .map(ReviewService::toPostDTO)
+                .toList();
+    }
+
+    /**
+     * Loads a requested post with its content. Review requests above the inline limit do not carry
+     * the content, so it is only fetched from post-service once a reviewer opens the post.
+     */
+    public PostDTO getRequestedPost(Long postId) {
+        PendingReview pending = pendingReviewRepository.findById(postId).orElse(null);
+        if (pending != null && pending.getContent() != null) {
+            return toPostDTO(pending);
+        }
+
+        PostDTO post = postClient.getPostByIdInternal(postId);
+        if (pending != null && pending.getContentHash() != null
+                && !pending.getContentHash().equals(PostReviewRequestedEvent.contentHash(post.content()))) {
+            log.warn("Content of post {} changed since it was submitted for review", postId);
+        }
+        return post;
     }
 
-    public List<PostDTO> getRequestedPosts() {
-        return postClient.getRequestedPosts("REVIEWER");
+    private static PostDTO toPostDTO(PendingReview pending) {
+        return new PostDTO(pending.getPostId(), pending.getTitle(), pending.getContent(), pending.getAuthor(),
+                pending.getRequestedAt(), "REQUESTED");
     }
 }
@@ -0,0 +1,175 @@
+package be.pxl.services.stats;
+
+import be.pxl.services.events.ReviewDecision;
+import be.pxl.services.repository.PendingReviewRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running review statistics, updated as review requests arrive and reviews are committed, so none of
+ * them needs a query over the reviews table. Time to review, from submitting the post to the decision,
+ * is kept in an HdrHistogram for the whole uptime and in the review.time-to-review timer for recent
+ * percentiles. Throughput is counted in one-minute buckets, overall and per reviewer.
+ * The backlog is adjusted with every request and review and recounted every backlog-refresh, which
+ * also picks up the requests and reviews handled by other instances.
+ * Served by the reviewstats actuator endpoint.
+ */
+@Component
+public class ReviewStatistics {
+
+    private static final long MAX_TRACKED_MILLIS = Duration.ofDays(90).toMillis();
+
+    public record TimeToReview(long count, long meanMillis, long p50Millis, long p90Millis, long p99Millis,
+                               long maxMillis) {
+    }
+
+    public record Throughput(long lastMinute, long lastHour, long total) {
+    }
+
+    public record Snapshot(long backlog, TimeToReview timeToReview, Throughput throughput,
+                           Map<String, Throughput> reviewers) {
+    }
+
+    private final PendingReviewRepository pendingReviewRepository;
+    private final MeterRegistry meterRegistry;
+    private final Histogram timeToReview = new ConcurrentHistogram(MAX_TRACKED_MILLIS, 3);
+    private final Timer timeToReviewTimer;
+    private final Counter requests;
+    private final MinuteCounter throughput = new MinuteCounter();
+    private final Map<String, MinuteCounter> reviewers = new ConcurrentHashMap<>();
+    private final AtomicLong backlog = new AtomicLong();
+
+    public ReviewStatistics(PendingReviewRepository pendingReviewRepository, MeterRegistry meterRegistry) {
+        this.pendingReviewRepository = pendingReviewRepository;
+        this.meterRegistry = meterRegistry;
+        this.timeToReviewTimer = Timer.builder("review.time-to-review")
+                .description("Time from submitting a post for review to the review decision")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry);
+        this.requests = Counter.builder("review.requests")
+                .description("Review requests added to the review queue")
+                .register(meterRegistry);
+        Gauge.builder("review.backlog", backlog, AtomicLong::get)
+                .description("Posts waiting for review")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts a review request once the surrounding transaction commits; redeliveries of a request
+     * that is already queued are not counted.
+     */
+    public void requestRecorded(boolean newRequest) {
+        if (newRequest) {
+            afterCommit(() -> {
+                requests.increment();
+                backlog.incrementAndGet();
+            });
+        }
+    }
+
+    /**
+     * Counts a review once the surrounding transaction commits, so a rolled back review leaves no trace.
+     */
+    public void reviewRecorded(String reviewer, ReviewDecision decision, LocalDateTime requestedAt,
+                               LocalDateTime reviewedAt) {
+        afterCommit(() -> {
+            if (requestedAt != null) {
+                long millis = Math.max(Duration.between(requestedAt, reviewedAt).toMillis(), 0);
+                timeToReview.recordValue(Math.min(millis, MAX_TRACKED_MILLIS));
+                timeToReviewTimer.record(millis, TimeUnit.MILLISECONDS);
+            }
+            long minute = currentMinute();
+            throughput.increment(minute);
+            reviewers.computeIfAbsent(reviewer, name -> new MinuteCounter()).increment(minute);
+            meterRegistry.counter("review.reviews", "reviewer", reviewer, "decision", decision.name())
+                    .increment();
+            backlog.updateAndGet(count -> Math.max(count - 1, 0));
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.review.stats.backlog-refresh:PT1M}")
+    public void refreshBacklog() {
+        backlog.set(pendingReviewRepository.count());
+    }
+
+    public Snapshot snapshot() {
+        Histogram copy = timeToReview.copy();
+        long minute = currentMinute();
+        Map<String, Throughput> perReviewer = new TreeMap<>();
+        reviewers.forEach((reviewer, counter) -> perReviewer.put(reviewer, counter.throughput(minute)));
+        return new Snapshot(
+                backlog.get(),
+                new TimeToReview(copy.getTotalCount(), Math.round(copy.getMean()),
+                        copy.getValueAtPercentile(50), copy.getValueAtPercentile(90),
+                        copy.getValueAtPercentile(99), copy.getMaxValue()),
+                throughput.throughput(minute),
+                perReviewer);
+    }
+
+    private static long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Counts per minute over the last hour, in a ring of 60 buckets that are reset when reused.
+     */
+    private static final class MinuteCounter {
+
+        private static final int MINUTES = 60;
+
+        private final long[] minutes = new long[MINUTES];
+        private final long[] counts = new long[MINUTES];
+        private long total;
+
+        synchronized void increment(long minute) {
+            int slot = (int) (minute % MINUTES);
+            if (minutes[slot] != minute) {
+                minutes[slot] = minute;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+            total++;
+        }
+
+        synchronized Throughput throughput(long minute) {
+            long lastHour = 0;
+            for (int slot = 0; slot < MINUTES; slot++) {
+                if (minute - minutes[slot] < MINUTES) {
+                    lastHour += counts[slot];
+                }
+            }
+            int current = (int) (minute % MINUTES);
+            long lastMinute = minutes[current] == minute ? counts[current] : 0;
+            return new Throughput(lastMinute, lastHour, total);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package be.pxl.services.stats;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/reviewstats: time-to-review percentiles, throughput per reviewer and the review backlog.
+ */
+@Component
+@Endpoint(id = "reviewstats")
+public class ReviewStatisticsEndpoint {
+
+    private final ReviewStatistics reviewStatistics;
+
+    public ReviewStatisticsEndpoint(ReviewStatistics reviewStatistics) {
+        this.reviewStatistics = reviewStatistics;
+    }
+
+    @ReadOperation
+    public ReviewStatistics.Snapshot reviewStatistics() {
+        return reviewStatistics.snapshot();
+    }
+}
@@ -1,11 +1,19 @@
 package be.pxl.services;
 
 import be.pxl.services.client.PostClient;
+import be.pxl.services.client.PostClientFallbackFactory;
+import be.pxl.services.client.PostServiceUnavailableException;
 import be.pxl.services.controller.ReviewController;
+import be.pxl.services.dto.BulkReviewResult;
 import be.pxl.services.dto.PostDTO;
+import be.pxl.services.dto.ReviewLease;
 import be.pxl.services.entity.Review;
-import be.pxl.services.entity.ReviewDecision;
+import be.pxl.services.events.ReviewDecision;
+import be.pxl.services.service.ReviewLeaseService;
 import be.pxl.services.service.ReviewService;
+import feign.Request;
+import feign.Response;
+import feign.codec.ErrorDecoder;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -13,8 +21,10 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.*;
@@ -32,6 +42,9 @@ class ReviewControllerTest {
     @MockBean
     private ReviewService reviewService;
 
+    @MockBean
+    private ReviewLeaseService reviewLeaseService;
+
     @MockBean
     private PostClient postClient;
 
@@ -84,6 +97,18 @@ class ReviewControllerTest {
                 .andExpect(jsonPath("$.id").value(1L));
     }
 
+    @Test
+    void reviewPost_postLeasedByAnotherReviewer_returnsConflict() throws Exception {
+        when(reviewService.reviewPost(anyLong(), anyString(), any(), any()))
+                .thenThrow(new IllegalStateException("Post 10 is being reviewed by reviewer2"));
+
+        mockMvc.perform(post("/api/reviews/10")
+                        .param("decision", "APPROVED")
+                        .header("X-User-Role", "REVIEWER")
+                        .header("X-User-Name", "reviewer1"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void reviewPost_rejectWithoutComment_returnsBadRequest() throws Exception {
         mockMvc.perform(post("/api/reviews/10")
@@ -105,7 +130,7 @@ class ReviewControllerTest {
     @Test
     void getRequestedPosts_asReviewer_returnsListOfPostDto() throws Exception {
         PostDTO dto = new PostDTO(1L, "t", "c", "a", LocalDateTime.now(), "REQUESTED");
-        when(reviewService.getRequestedPosts()).thenReturn(List.of(dto));
+        when(reviewService.getRequestedPosts("reviewer1")).thenReturn(List.of(dto));
 
         mockMvc.perform(get("/api/reviews/requests")
                         .header("X-User-Role", "REVIEWER")
@@ -121,4 +146,122 @@ class ReviewControllerTest {
                         .header("X-User-Name", "editor1"))
                 .andExpect(status().isForbidden());
     }
+
+    @Test
+    void getRequestedPost_asReviewer_returnsPostWithContent() throws Exception {
+        PostDTO dto = new PostDTO(1L, "t", "long content", "a", LocalDateTime.now(), "REQUESTED");
+        when(reviewService.getRequestedPost(1L)).thenReturn(dto);
+
+        mockMvc.perform(get("/api/reviews/requests/1")
+                        .header("X-User-Role", "REVIEWER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").value("long content"));
+    }
+
+    @Test
+    void getRequestedPost_postServiceUnavailable_returnsServiceUnavailable() throws Exception {
+        when(reviewService.getRequestedPost(1L))
+                .thenThrow(new PostServiceUnavailableException(new IllegalStateException("circuit open")));
+
+        mockMvc.perform(get("/api/reviews/requests/1")
+                        .header("X-User-Role", "REVIEWER"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void getRequestedPost_postUnknownToPostService_returnsNotFound() throws Exception {
+        Request request = Request.create(Request.HttpMethod.GET, "http://post-service/api/posts/internal/1",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        Exception notFound = new ErrorDecoder.Default().decode("PostClient#getPostByIdInternal(Long)",
+                Response.builder().status(404).reason("Not Found").request(request).headers(Map.of()).build());
+        PostClient fallback = new PostClientFallbackFactory().create(notFound);
+        when(reviewService.getRequestedPost(1L)).thenAnswer(invocation -> fallback.getPostByIdInternal(1L));
+
+        mockMvc.perform(get("/api/reviews/requests/1")
+                        .header("X-User-Role", "REVIEWER"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getRequestedPost_nonReviewer_forbidden() throws Exception {
+        mockMvc.perform(get("/api/reviews/requests/1")
+                        .header("X-User-Role", "EDITOR"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void reviewPosts_mixedResults_returnsMultiStatus() throws Exception {
+        when(reviewService.reviewPosts(eq("reviewer1"), anyList())).thenReturn(List.of(
+                BulkReviewResult.created(1L, 10L),
+                BulkReviewResult.invalid(2L, "Comment is required when rejecting a post.")));
+
+        mockMvc.perform(post("/api/reviews/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"postId\":1,\"decision\":\"APPROVED\"},{\"postId\":2,\"decision\":\"REJECTED\"}]")
+                        .header("X-User-Role", "REVIEWER")
+                        .header("X-User-Name", "reviewer1"))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$[0].outcome").value("CREATED"))
+                .andExpect(jsonPath("$[1].outcome").value("INVALID"));
+    }
+
+    @Test
+    void reviewPosts_allCreated_returnsCreated() throws Exception {
+        when(reviewService.reviewPosts(eq("reviewer1"), anyList()))
+                .thenReturn(List.of(BulkReviewResult.created(1L, 10L)));
+
+        mockMvc.perform(post("/api/reviews/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"postId\":1,\"decision\":\"APPROVED\"}]")
+                        .header("X-User-Role", "REVIEWER")
+                        .header("X-User-Name", "reviewer1"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void reviewPosts_nonReviewer_forbidden() throws Exception {
+        mockMvc.perform(post("/api/reviews/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]")
+                        .header("X-User-Role", "EDITOR")
+                        .header("X-User-Name", "editor1"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void reviewPosts_allConflicting_returnsConflict() throws Exception {
+        when(reviewService.reviewPosts(eq("reviewer1"), anyList()))
+                .thenReturn(List.of(BulkReviewResult.conflict(1L, "Post 1 is not awaiting review")));
+
+        mockMvc.perform(post("/api/reviews/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"postId\":1,\"decision\":\"APPROVED\"}]")
+                        .header("X-User-Role", "REVIEWER")
+                        .header("X-User-Name", "reviewer1"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void claimRequestedPosts_asReviewer_returnsLeases() throws Exception {
+        when(reviewLeaseService.claim("reviewer1", 2)).thenReturn(List.of(
+                new ReviewLease(1L, "t", "a", LocalDateTime.now().plusMinutes(15)),
+                new ReviewLease(2L, "t", "a", LocalDateTime.now().plusMinutes(15))));
+
+        mockMvc.perform(post("/api/reviews/requests/claim")
+                        .param("count", "2")
+                        .header("X-User-Role", "REVIEWER")
+                        .header("X-User-Name", "reviewer1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void releaseRequestedPost_withoutLease_returnsNotFound() throws Exception {
+        when(reviewLeaseService.release("reviewer1", 1L)).thenReturn(false);
+
+        mockMvc.perform(delete("/api/reviews/requests/1/lease")
+                        .header("X-User-Role", "REVIEWER")
+                        .header("X-User-Name", "reviewer1"))
+                .andExpect(status().isNotFound());
+    }
 }
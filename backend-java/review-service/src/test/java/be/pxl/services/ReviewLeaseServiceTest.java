@@ -0,0 +1,93 @@
+package be.pxl.services;
+
+import be.pxl.services.dto.ReviewLease;
+import be.pxl.services.entity.PendingReview;
+import be.pxl.services.repository.PendingReviewRepository;
+import be.pxl.services.repository.ReviewerLockRepository;
+import be.pxl.services.service.ReviewLeaseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewLeaseServiceTest {
+
+    @Mock
+    private PendingReviewRepository pendingReviewRepository;
+
+    @Mock
+    private ReviewerLockRepository reviewerLockRepository;
+
+    private ReviewLeaseService reviewLeaseService;
+
+    @BeforeEach
+    void setUp() {
+        reviewLeaseService = new ReviewLeaseService(pendingReviewRepository, reviewerLockRepository,
+                Duration.ofMinutes(15), 3);
+    }
+
+    @Test
+    void claim_leasesOldestFreePostsToReviewer() {
+        PendingReview first = PendingReview.builder().postId(1L).title("a").build();
+        PendingReview second = PendingReview.builder().postId(2L).title("b").build();
+        when(pendingReviewRepository
+                .findByLeaseExpiresAtIsNullOrLeaseExpiresAtLessThanEqualOrderByRequestedAtAsc(
+                        any(LocalDateTime.class), eq(Limit.of(2))))
+                .thenReturn(List.of(first, second));
+
+        List<ReviewLease> leases = reviewLeaseService.claim("rita", 2);
+
+        assertThat(leases).extracting(ReviewLease::postId).containsExactly(1L, 2L);
+        assertThat(first.getLeasedBy()).isEqualTo("rita");
+        assertThat(first.getLeaseExpiresAt()).isAfter(LocalDateTime.now().plusMinutes(14));
+    }
+
+    @Test
+    void claim_isCappedByLeasesAlreadyHeld() {
+        when(pendingReviewRepository.countByLeasedByAndLeaseExpiresAtAfter(eq("rita"), any(LocalDateTime.class)))
+                .thenReturn(3L);
+
+        assertThat(reviewLeaseService.claim("rita", 5)).isEmpty();
+        verify(pendingReviewRepository, never())
+                .findByLeaseExpiresAtIsNullOrLeaseExpiresAtLessThanEqualOrderByRequestedAtAsc(any(), any());
+    }
+
+    @Test
+    void claim_locksReviewerBeforeCountingHeldLeases() {
+        reviewLeaseService.claim("rita", 1);
+
+        InOrder inOrder = inOrder(reviewerLockRepository, pendingReviewRepository);
+        inOrder.verify(reviewerLockRepository).insertIfAbsent("rita");
+        inOrder.verify(reviewerLockRepository).findByIdForUpdate("rita");
+        inOrder.verify(pendingReviewRepository)
+                .countByLeasedByAndLeaseExpiresAtAfter(eq("rita"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void release_onlyByLeaseHolder() {
+        PendingReview pending = PendingReview.builder().postId(1L).leasedBy("rita")
+                .leaseExpiresAt(LocalDateTime.now().plusMinutes(5)).build();
+        when(pendingReviewRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(pending));
+
+        assertThat(reviewLeaseService.release("sam", 1L)).isFalse();
+        assertThat(reviewLeaseService.release("rita", 1L)).isTrue();
+        assertThat(pending.getLeasedBy()).isNull();
+    }
+}
@@ -0,0 +1,100 @@
+package be.pxl.services;
+
+import be.pxl.services.events.EventCodec;
+import be.pxl.services.events.EventMessaging;
+import be.pxl.services.events.PostReviewResultEvent;
+import be.pxl.services.events.ReviewDecision;
+import be.pxl.services.messaging.ReviewResultPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewResultPublisherTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<CorrelationData> sent = new ArrayList<>();
+
+    private ReviewResultPublisher publisher;
+
+    private final PostReviewResultEvent event =
+            new PostReviewResultEvent("e1", 10L, ReviewDecision.APPROVED, "rita", null, Instant.now());
+
+    @BeforeEach
+    void setUp() {
+        when(rabbitTemplate.getMessageConverter()).thenReturn(EventMessaging.messageConverter());
+        doAnswer(invocation -> sent.add(invocation.getArgument(3)))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        publisher = new ReviewResultPublisher(rabbitTemplate, meterRegistry, 2, 3, Duration.ofMillis(10));
+
+        // fields injected with @Value in production
+        ReflectionTestUtils.setField(publisher, "exchangeName", "posts.exchange");
+        ReflectionTestUtils.setField(publisher, "reviewResultRoutingKey", "posts.review.result");
+        ReflectionTestUtils.setField(publisher, "reviewResultCodec", EventCodec.CBOR);
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("review.results.publish.in-flight").gauge().value();
+    }
+
+    @Test
+    void publish_doesNotWaitForConfirm_andFreesSlotOnAck() {
+        publisher.publish(event);
+
+        assertThat(sent).hasSize(1);
+        assertThat(inFlight()).isEqualTo(1.0);
+        ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(anyString(), anyString(), message.capture(), any(CorrelationData.class));
+        assertThat(message.getValue().getMessageProperties().getContentType()).isEqualTo("application/cbor");
+
+        sent.get(0).getFuture().complete(new CorrelationData.Confirm(true, null));
+
+        assertThat(inFlight()).isZero();
+        verify(rabbitTemplate, times(1))
+                .send(eq("posts.exchange"), eq("posts.review.result"), any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void publish_nackedMessage_isSentAgain() {
+        publisher.publish(event);
+
+        sent.get(0).getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+
+        verify(rabbitTemplate, timeout(1000).times(2))
+                .send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void publish_windowFull_freesUpWhenEarlierMessagesAreConfirmed() {
+        publisher.publish(event);
+        publisher.publish(event);
+        assertThat(inFlight()).isEqualTo(2.0);
+
+        sent.get(0).getFuture().complete(new CorrelationData.Confirm(true, null));
+        publisher.publish(event);
+
+        assertThat(sent).hasSize(3);
+    }
+}
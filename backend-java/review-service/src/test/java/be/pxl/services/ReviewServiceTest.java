@@ -1,24 +1,47 @@
 package be.pxl.services;
 
+import be.pxl.services.cache.ReviewHistoryCache;
 import be.pxl.services.client.PostClient;
-import be.pxl.services.dto.PostReviewResultEvent;
+import be.pxl.services.client.PostServiceUnavailableException;
+import be.pxl.services.dto.BulkReviewItem;
+import be.pxl.services.dto.BulkReviewResult;
+import be.pxl.services.dto.PostDTO;
+import be.pxl.services.entity.PendingReview;
 import be.pxl.services.entity.Review;
-import be.pxl.services.entity.ReviewDecision;
+import be.pxl.services.events.EventCodec;
+import be.pxl.services.events.PostReviewRequestedEvent;
+import be.pxl.services.events.PostReviewResultEvent;
+import be.pxl.services.events.ReviewDecision;
+import be.pxl.services.events.outbox.OutboxService;
 import be.pxl.services.messaging.ReviewResultPublisher;
+import be.pxl.services.repository.PendingReviewRepository;
 import be.pxl.services.repository.ReviewRepository;
 import be.pxl.services.service.ReviewService;
+import be.pxl.services.stats.ReviewStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,16 +56,37 @@ class ReviewServiceTest {
     @Mock
     private ReviewResultPublisher reviewResultPublisher;
 
+    @Mock
+    private PendingReviewRepository pendingReviewRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    private ReviewStatistics statistics;
+
     private ReviewService reviewService;
 
     @BeforeEach
     void setUp() {
         // adapt constructor call to your actual ReviewService
-        reviewService = new ReviewService(reviewRepository, postClient, reviewResultPublisher);
+        statistics = new ReviewStatistics(pendingReviewRepository, new SimpleMeterRegistry());
+        reviewService = new ReviewService(reviewRepository, postClient, reviewResultPublisher,
+                pendingReviewRepository, outboxService,
+                new ReviewHistoryCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry()), statistics);
+        ReflectionTestUtils.setField(reviewService, "exchangeName", "posts.exchange");
+        ReflectionTestUtils.setField(reviewService, "reviewResultRoutingKey", "posts.review.result");
+        ReflectionTestUtils.setField(reviewService, "reviewResultCodec", EventCodec.CBOR);
+    }
+
+    private PendingReview pending(Long postId) {
+        PendingReview pending = PendingReview.builder().postId(postId).requestedAt(LocalDateTime.now()).build();
+        when(pendingReviewRepository.findByIdForUpdate(postId)).thenReturn(Optional.of(pending));
+        return pending;
     }
 
     @Test
     void reviewPost_savesReviewAndUpdatesPostStatus() {
+        PendingReview pending = pending(10L);
         when(reviewRepository.save(any(Review.class)))
                 .thenAnswer(invocation -> {
                     Review r = invocation.getArgument(0);
@@ -56,11 +100,186 @@ class ReviewServiceTest {
         assertThat(result.getId()).isEqualTo(1L);
 
         verify(postClient).updatePostStatus(10L, "PUBLISHED");
+        verify(pendingReviewRepository).delete(pending);
 
         ArgumentCaptor<PostReviewResultEvent> eventCaptor =
                 ArgumentCaptor.forClass(PostReviewResultEvent.class);
         verify(reviewResultPublisher).publish(eventCaptor.capture());
         assertThat(eventCaptor.getValue().postId()).isEqualTo(10L);
+        assertThat(eventCaptor.getValue().eventId()).isNotBlank();
+    }
+
+    @Test
+    void reviewPost_asyncStatusUpdate_queuesEventWithoutCallingPostService() {
+        ReflectionTestUtils.setField(reviewService, "asyncStatusUpdate", true);
+        PendingReview pending = pending(10L);
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        reviewService.reviewPost(10L, "reviewer", ReviewDecision.REJECTED, "needs work");
+
+        ArgumentCaptor<PostReviewResultEvent> eventCaptor =
+                ArgumentCaptor.forClass(PostReviewResultEvent.class);
+        verify(outboxService).enqueue(eq("posts.exchange"), eq("posts.review.result"),
+                eventCaptor.capture(), eq(EventCodec.CBOR));
+        assertThat(eventCaptor.getValue().decision()).isEqualTo(ReviewDecision.REJECTED);
+        verify(pendingReviewRepository).delete(pending);
+        verifyNoInteractions(postClient, reviewResultPublisher);
+    }
+
+    @Test
+    void reviewPost_recordsTimeToReviewAndThroughput() {
+        PendingReview pending = pending(10L);
+        pending.setRequestedAt(LocalDateTime.now().minusMinutes(30));
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        reviewService.reviewPost(10L, "rita", ReviewDecision.APPROVED, null);
+
+        ReviewStatistics.Snapshot snapshot = statistics.snapshot();
+        assertThat(snapshot.timeToReview().count()).isEqualTo(1);
+        assertThat(snapshot.timeToReview().p50Millis()).isBetween(29 * 60_000L, 31 * 60_000L);
+        assertThat(snapshot.reviewers().get("rita").lastHour()).isEqualTo(1);
+    }
+
+    @Test
+    void reviewPost_seededPost_isLeftOutOfTimeToReview() {
+        PendingReview pending = pending(10L);
+        pending.setRequestedAt(LocalDateTime.now().minusDays(30));
+        pending.setSeeded(true);
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        reviewService.reviewPost(10L, "rita", ReviewDecision.APPROVED, null);
+
+        ReviewStatistics.Snapshot snapshot = statistics.snapshot();
+        assertThat(snapshot.timeToReview().count()).isZero();
+        assertThat(snapshot.reviewers().get("rita").lastHour()).isEqualTo(1);
+    }
+
+    @Test
+    void seedPendingReviews_retriesUntilPostServiceAnswers() {
+        when(postClient.getRequestedPosts("REVIEWER"))
+                .thenThrow(new PostServiceUnavailableException(new IllegalStateException("down")))
+                .thenReturn(List.of(new PostDTO(1L, "a", "body", "gabriel", LocalDateTime.now(), "REQUESTED")));
+
+        reviewService.seedPendingReviews();
+        verify(pendingReviewRepository, never()).saveAll(anyList());
+
+        reviewService.seedPendingReviews();
+        reviewService.seedPendingReviews();
+
+        verify(postClient, times(2)).getRequestedPosts("REVIEWER");
+        ArgumentCaptor<List<PendingReview>> captor = ArgumentCaptor.forClass(List.class);
+        verify(pendingReviewRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(PendingReview::getPostId).containsExactly(1L);
+        assertThat(captor.getValue()).allMatch(PendingReview::isSeeded);
+    }
+
+    @Test
+    void seedPendingReviews_skipsQueuedAndReviewedPosts() {
+        LocalDateTime created = LocalDateTime.now();
+        when(postClient.getRequestedPosts("REVIEWER")).thenReturn(List.of(
+                new PostDTO(1L, "a", "body", "gabriel", created, "REQUESTED"),
+                new PostDTO(2L, "b", "body", "gabriel", created, "REQUESTED"),
+                new PostDTO(3L, "c", "body", "gabriel", created, "REQUESTED")));
+        when(pendingReviewRepository.findAllById(Set.of(1L, 2L, 3L)))
+                .thenReturn(List.of(PendingReview.builder().postId(1L).build()));
+        when(reviewRepository.findReviewedPostIds(Set.of(1L, 2L, 3L))).thenReturn(Set.of(2L));
+
+        reviewService.seedPendingReviews();
+
+        ArgumentCaptor<List<PendingReview>> captor = ArgumentCaptor.forClass(List.class);
+        verify(pendingReviewRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(PendingReview::getPostId).containsExactly(3L);
+    }
+
+    @Test
+    void reviewPost_leasedToAnotherReviewer_isRefused() {
+        PendingReview pending = pending(10L);
+        pending.setLeasedBy("rita");
+        pending.setLeaseExpiresAt(LocalDateTime.now().plusMinutes(5));
+
+        assertThatThrownBy(() -> reviewService.reviewPost(10L, "sam", ReviewDecision.APPROVED, null))
+                .isInstanceOf(IllegalStateException.class);
+        verify(reviewRepository, never()).save(any());
+        verifyNoInteractions(postClient, reviewResultPublisher, outboxService);
+    }
+
+    @Test
+    void reviewPost_expiredLeaseOfAnotherReviewer_isIgnored() {
+        PendingReview pending = pending(10L);
+        pending.setLeasedBy("rita");
+        pending.setLeaseExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        reviewService.reviewPost(10L, "sam", ReviewDecision.APPROVED, null);
+
+        verify(pendingReviewRepository).delete(pending);
+    }
+
+    @Test
+    void reviewPost_noLongerPending_isRefused() {
+        when(pendingReviewRepository.findByIdForUpdate(10L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> reviewService.reviewPost(10L, "sam", ReviewDecision.APPROVED, null))
+                .isInstanceOf(IllegalStateException.class);
+        verify(reviewRepository, never()).save(any());
+    }
+
+    @Test
+    void reviewPosts_insertsValidItemsInOneBatch_andReportsInvalidOnesInPlace() {
+        when(pendingReviewRepository.findAllByIdForUpdate(List.of(1L, 3L))).thenReturn(List.of(
+                PendingReview.builder().postId(1L).build(), PendingReview.builder().postId(3L).build()));
+        when(reviewRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Review> reviews = invocation.getArgument(0);
+            for (int i = 0; i < reviews.size(); i++) {
+                reviews.get(i).setId(100L + i);
+            }
+            return reviews;
+        });
+
+        List<BulkReviewResult> results = reviewService.reviewPosts("rita", List.of(
+                new BulkReviewItem(1L, ReviewDecision.APPROVED, null),
+                new BulkReviewItem(2L, ReviewDecision.REJECTED, " "),
+                new BulkReviewItem(3L, ReviewDecision.REJECTED, "needs sources"),
+                new BulkReviewItem(1L, ReviewDecision.REJECTED, "changed my mind")));
+
+        assertThat(results).extracting(BulkReviewResult::outcome).containsExactly(
+                BulkReviewResult.Outcome.CREATED, BulkReviewResult.Outcome.INVALID,
+                BulkReviewResult.Outcome.CREATED, BulkReviewResult.Outcome.INVALID);
+        assertThat(results).extracting(BulkReviewResult::reviewId).containsExactly(100L, null, 101L, null);
+        verify(pendingReviewRepository).deleteAllByIdInBatch(List.of(1L, 3L));
+        verify(outboxService, times(2)).enqueue(eq("posts.exchange"), eq("posts.review.result"),
+                any(PostReviewResultEvent.class), eq(EventCodec.CBOR));
+        verifyNoInteractions(postClient, reviewResultPublisher);
+    }
+
+    @Test
+    void reviewPosts_reportsPostsLeasedByOthersOrNoLongerPendingAsConflicts() {
+        when(pendingReviewRepository.findAllByIdForUpdate(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                PendingReview.builder().postId(1L).leasedBy("sam")
+                        .leaseExpiresAt(LocalDateTime.now().plusMinutes(5)).build(),
+                PendingReview.builder().postId(3L).leasedBy("rita")
+                        .leaseExpiresAt(LocalDateTime.now().plusMinutes(5)).build()));
+        when(reviewRepository.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BulkReviewResult> results = reviewService.reviewPosts("rita", List.of(
+                new BulkReviewItem(1L, ReviewDecision.APPROVED, null),
+                new BulkReviewItem(2L, ReviewDecision.APPROVED, null),
+                new BulkReviewItem(3L, ReviewDecision.APPROVED, null)));
+
+        assertThat(results).extracting(BulkReviewResult::outcome).containsExactly(
+                BulkReviewResult.Outcome.CONFLICT, BulkReviewResult.Outcome.CONFLICT,
+                BulkReviewResult.Outcome.CREATED);
+        verify(pendingReviewRepository).deleteAllByIdInBatch(List.of(3L));
+    }
+
+    @Test
+    void reviewPosts_tooManyItems_throws() {
+        List<BulkReviewItem> items = LongStream.rangeClosed(1, ReviewService.MAX_BULK_SIZE + 1)
+                .mapToObj(id -> new BulkReviewItem(id, ReviewDecision.APPROVED, null))
+                .toList();
+
+        assertThatThrownBy(() -> reviewService.reviewPosts("rita", items))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
@@ -75,4 +294,107 @@ class ReviewServiceTest {
         assertThat(result).hasSize(2);
         verify(reviewRepository).findByPostIdOrderByCreatedAtDesc(5L);
     }
+
+    @Test
+    void getReviewsForPost_isCached_andNewReviewsAreAppended() {
+        Review older = Review.builder().id(1L).postId(5L).build();
+        when(reviewRepository.findByPostIdOrderByCreatedAtDesc(5L)).thenReturn(List.of(older));
+        when(reviewRepository.save(any(Review.class))).thenAnswer(invocation -> {
+            Review r = invocation.getArgument(0);
+            r.setId(2L);
+            return r;
+        });
+
+        pending(5L);
+
+        reviewService.getReviewsForPost(5L);
+        reviewService.reviewPost(5L, "rita", ReviewDecision.APPROVED, null);
+        List<Review> history = reviewService.getReviewsForPost(5L);
+
+        assertThat(history).extracting(Review::getId).containsExactly(2L, 1L);
+        verify(reviewRepository, times(1)).findByPostIdOrderByCreatedAtDesc(5L);
+    }
+
+    @Test
+    void recordReviewRequest_storesPendingReview() {
+        reviewService.recordReviewRequest(
+                PostReviewRequestedEvent.of(3L, "Title", "x".repeat(100), "gabriel", 10));
+
+        ArgumentCaptor<PendingReview> captor = ArgumentCaptor.forClass(PendingReview.class);
+        verify(pendingReviewRepository).save(captor.capture());
+        assertThat(captor.getValue().getPostId()).isEqualTo(3L);
+        assertThat(captor.getValue().getContent()).isNull();
+        assertThat(captor.getValue().getContentSize()).isEqualTo(100);
+        assertThat(captor.getValue().getRequestedAt()).isNotNull();
+    }
+
+    @Test
+    void recordReviewRequest_redeliveryKeepsLease() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(5);
+        when(pendingReviewRepository.findById(3L)).thenReturn(Optional.of(PendingReview.builder()
+                .postId(3L).leasedBy("rita").leaseExpiresAt(expiresAt).build()));
+
+        reviewService.recordReviewRequest(PostReviewRequestedEvent.of(3L, "Title", "body", "gabriel", 1024));
+
+        ArgumentCaptor<PendingReview> captor = ArgumentCaptor.forClass(PendingReview.class);
+        verify(pendingReviewRepository).save(captor.capture());
+        assertThat(captor.getValue().getLeasedBy()).isEqualTo("rita");
+        assertThat(captor.getValue().getLeaseExpiresAt()).isEqualTo(expiresAt);
+        assertThat(statistics.snapshot().backlog()).isZero();
+    }
+
+    @Test
+    void recordReviewRequest_alreadyReviewed_isIgnored() {
+        Instant requestedAt = Instant.now().minusSeconds(60);
+        when(reviewRepository.findFirstByPostIdOrderByCreatedAtDesc(3L)).thenReturn(Optional.of(Review.builder()
+                .postId(3L).createdAt(LocalDateTime.now()).build()));
+
+        reviewService.recordReviewRequest(new PostReviewRequestedEvent(3L, "Title", "body", "gabriel",
+                null, 4, requestedAt));
+
+        verify(pendingReviewRepository, never()).save(any());
+    }
+
+    @Test
+    void recordReviewRequest_resubmittedAfterReview_isQueued() {
+        when(reviewRepository.findFirstByPostIdOrderByCreatedAtDesc(3L)).thenReturn(Optional.of(Review.builder()
+                .postId(3L).createdAt(LocalDateTime.now().minusMinutes(5)).build()));
+
+        reviewService.recordReviewRequest(PostReviewRequestedEvent.of(3L, "Title", "body", "gabriel", 1024));
+
+        verify(pendingReviewRepository).save(any(PendingReview.class));
+    }
+
+    @Test
+    void getRequestedPosts_servedFromLocalQueue() {
+        when(pendingReviewRepository.findVisibleTo(eq("rita"), any(LocalDateTime.class))).thenReturn(List.of(
+                PendingReview.builder().postId(1L).title("a").requestedAt(LocalDateTime.now()).build(),
+                PendingReview.builder().postId(2L).title("b").requestedAt(LocalDateTime.now()).build()));
+
+        List<PostDTO> result = reviewService.getRequestedPosts("rita");
+
+        assertThat(result).extracting(PostDTO::id).containsExactly(1L, 2L);
+        assertThat(result).extracting(PostDTO::status).containsOnly("REQUESTED");
+        verifyNoInteractions(postClient);
+    }
+
+    @Test
+    void getRequestedPost_fetchesClaimCheckContentFromPostService() {
+        String content = "long content";
+        when(pendingReviewRepository.findById(4L)).thenReturn(Optional.of(PendingReview.builder()
+                .postId(4L).contentHash(PostReviewRequestedEvent.contentHash(content)).build()));
+        when(postClient.getPostByIdInternal(4L))
+                .thenReturn(new PostDTO(4L, "t", content, "a", LocalDateTime.now(), "REQUESTED"));
+
+        assertThat(reviewService.getRequestedPost(4L).content()).isEqualTo(content);
+    }
+
+    @Test
+    void getRequestedPost_inlineContentServedLocally() {
+        when(pendingReviewRepository.findById(5L)).thenReturn(Optional.of(PendingReview.builder()
+                .postId(5L).content("short").build()));
+
+        assertThat(reviewService.getRequestedPost(5L).content()).isEqualTo("short");
+        verifyNoInteractions(postClient);
+    }
 }
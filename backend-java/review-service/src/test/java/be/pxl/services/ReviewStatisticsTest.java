@@ -0,0 +1,67 @@
+package be.pxl.services;
+
+import be.pxl.services.events.ReviewDecision;
+import be.pxl.services.repository.PendingReviewRepository;
+import be.pxl.services.stats.ReviewStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewStatisticsTest {
+
+    @Mock
+    private PendingReviewRepository pendingReviewRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReviewStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        statistics = new ReviewStatistics(pendingReviewRepository, meterRegistry);
+    }
+
+    @Test
+    void percentilesAndRatesFollowRecordedReviews() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int minutes = 1; minutes <= 100; minutes++) {
+            statistics.reviewRecorded(minutes % 2 == 0 ? "rita" : "sam", ReviewDecision.APPROVED,
+                    now.minusMinutes(minutes), now);
+        }
+
+        ReviewStatistics.Snapshot snapshot = statistics.snapshot();
+        assertThat(snapshot.timeToReview().count()).isEqualTo(100);
+        assertThat(snapshot.timeToReview().p50Millis()).isBetween(49 * 60_000L, 51 * 60_000L);
+        assertThat(snapshot.timeToReview().p99Millis()).isBetween(98 * 60_000L, 100 * 60_000L);
+        assertThat(snapshot.throughput().lastHour()).isEqualTo(100);
+        assertThat(snapshot.reviewers()).containsOnlyKeys("rita", "sam");
+        assertThat(snapshot.reviewers().get("rita").total()).isEqualTo(50);
+        assertThat(meterRegistry.get("review.reviews").tag("reviewer", "sam").counter().count()).isEqualTo(50);
+        assertThat(meterRegistry.get("review.time-to-review").timer().count()).isEqualTo(100);
+    }
+
+    @Test
+    void backlogFollowsRequestsAndReviews_andIsRecountedOnRefresh() {
+        statistics.requestRecorded(true);
+        statistics.requestRecorded(true);
+        statistics.requestRecorded(false);
+        statistics.reviewRecorded("rita", ReviewDecision.REJECTED, null, LocalDateTime.now());
+
+        assertThat(statistics.snapshot().backlog()).isEqualTo(1);
+        assertThat(meterRegistry.get("review.backlog").gauge().value()).isEqualTo(1);
+
+        when(pendingReviewRepository.count()).thenReturn(7L);
+        statistics.refreshBacklog();
+
+        assertThat(statistics.snapshot().backlog()).isEqualTo(7);
+    }
+}